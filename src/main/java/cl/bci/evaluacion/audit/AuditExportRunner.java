@@ -0,0 +1,101 @@
+package cl.bci.evaluacion.audit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lectura del journal de auditoría por línea de comandos: con audit.export definido escribe los registros
+ * de audit.directory como NDJSON en ese archivo ("-" para la salida estándar) y, si audit.export-exit=true,
+ * termina la aplicación.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.export")
+public class AuditExportRunner implements ApplicationRunner {
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+    private final Path directory;
+    private final String file;
+    private final boolean exit;
+
+    public AuditExportRunner(ObjectMapper objectMapper,
+                             ApplicationContext applicationContext,
+                             @Value("${audit.directory:./data/audit}") Path directory,
+                             @Value("${audit.export}") String file,
+                             @Value("${audit.export-exit:true}") boolean exit) {
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+        this.directory = directory;
+        this.file = file;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long records;
+        if ("-".equals(file)) {
+            records = export(directory, System.out, objectMapper);
+            System.out.flush();
+        } else {
+            Path path = Path.of(file);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(path)) {
+                records = export(directory, out, objectMapper);
+            }
+        }
+        log.info("Registros de auditoría exportados desde {}: {}", directory, records);
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /**
+     * Escribe los registros de los segmentos como NDJSON, un registro por línea, sin cargarlos en memoria.
+     *
+     * @return Registros escritos
+     */
+    public static long export(Path directory, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        long[] records = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            AuditJournal.read(directory, record -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeStringField("timestamp", record.timestamp().toString());
+                    generator.writeStringField("userId", record.userId() != null ? record.userId().toString() : null);
+                    generator.writeNumberField("emailHash", record.emailHash());
+                    generator.writeStringField("outcome", record.outcome().name());
+                    generator.writeNumberField("latencyMicros", record.latencyMicros());
+                    generator.writeEndObject();
+                    records[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (records[0] > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return records[0];
+    }
+}
@@ -0,0 +1,315 @@
+package cl.bci.evaluacion.audit;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journal de auditoría de solo agregado en segmentos mapeados en memoria (audit-000000000001.seg, ...).
+ * Cada registro ocupa {@link #RECORD_SIZE} bytes little-endian:
+ * <pre>
+ *  0 int  resultado (AuditOutcome.code, se escribe al final; 0 = sin escribir)
+ *  4 int  latencia en microsegundos
+ *  8 long instante en milisegundos
+ * 16 long id del usuario (bits altos, 0 si no se creó)
+ * 24 long id del usuario (bits bajos)
+ * 32 long hash del correo
+ * </pre>
+ * La escritura no toma locks: cada hilo reserva una posición con un contador atómico del segmento y escribe
+ * con operaciones absolutas sobre el buffer; el resultado se publica con setRelease. El hilo que reserva la
+ * primera posición fuera del segmento abre el siguiente y los demás esperan el cambio.
+ * La escritura a disco (force) la hace un único hilo en {@link #flush()}; los registros que no alcanzaron
+ * a forzarse quedan en la caché de páginas del sistema operativo, por lo que solo se pierden si cae el equipo.
+ * Cada instancia comienza un segmento nuevo; los segmentos son archivos dispersos del tamaño configurado.
+ * Si no se puede abrir el siguiente segmento los registros se descartan hasta que {@link #flush()} logra abrir
+ * uno nuevo. Con un máximo de segmentos, {@link #flush()} y el constructor eliminan los más antiguos ya cerrados.
+ */
+@Slf4j
+public class AuditJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 40;
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+    private static final VarHandle OUTCOME = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final int capacity;
+    private final int maxSegments;
+    private volatile boolean closed;
+    private final AtomicReference<Segment> current = new AtomicReference<>();
+    // Segmentos cerrados a la escritura que el flusher aún no fuerza por completo
+    private final Queue<Segment> retired = new ConcurrentLinkedQueue<>();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Segmento mapeado y sus contadores de posiciones reservadas y escritas.
+     */
+    private static final class Segment {
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger claimed = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private Segment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Journal sin límite de segmentos.
+     *
+     * @param directory    Directorio de los segmentos
+     * @param segmentBytes Tamaño de cada segmento (se redondea a un múltiplo de {@link #RECORD_SIZE})
+     */
+    public AuditJournal(Path directory, int segmentBytes) throws IOException {
+        this(directory, segmentBytes, 0);
+    }
+
+    /**
+     * @param directory    Directorio de los segmentos
+     * @param segmentBytes Tamaño de cada segmento (se redondea a un múltiplo de {@link #RECORD_SIZE})
+     * @param maxSegments  Segmentos que se conservan en el directorio, incluido el actual (0 = sin límite)
+     */
+    public AuditJournal(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("El segmento debe tener al menos " + RECORD_SIZE + " bytes");
+        }
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("El máximo de segmentos no puede ser negativo");
+        }
+        this.directory = directory;
+        this.capacity = segmentBytes / RECORD_SIZE;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        current.set(open(lastSequence() + 1));
+        prune();
+    }
+
+    /**
+     * Agrega un registro. Si el journal está cerrado o no pudo abrir un segmento, el registro se descarta.
+     *
+     * @return false si el registro se descartó
+     */
+    public boolean append(long timestampMillis, UUID userId, long emailHash, AuditOutcome outcome, long latencyMicros) {
+        while (true) {
+            Segment segment = current.get();
+            if (segment == null) {
+                dropped.increment();
+                return false;
+            }
+            int slot = segment.claimed.getAndIncrement();
+            if (slot < capacity) {
+                write(segment, slot * RECORD_SIZE, timestampMillis, userId, emailHash, outcome, latencyMicros);
+                return true;
+            }
+            if (slot == capacity) {
+                roll(segment);
+            } else {
+                while (current.get() == segment) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    private static void write(Segment segment, int offset, long timestampMillis, UUID userId, long emailHash,
+                              AuditOutcome outcome, long latencyMicros) {
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(offset + 4, (int) Math.min(latencyMicros, Integer.MAX_VALUE));
+        buffer.putLong(offset + 8, timestampMillis);
+        buffer.putLong(offset + 16, userId != null ? userId.getMostSignificantBits() : 0);
+        buffer.putLong(offset + 24, userId != null ? userId.getLeastSignificantBits() : 0);
+        buffer.putLong(offset + 32, emailHash);
+        OUTCOME.setRelease(buffer, offset, outcome.getCode());
+        segment.completed.incrementAndGet();
+    }
+
+    private void roll(Segment full) {
+        Segment next;
+        try {
+            next = open(full.sequence + 1);
+        } catch (IOException e) {
+            log.error("No se pudo abrir el segmento de auditoría {}", full.sequence + 1, e);
+            next = null;
+        }
+        retired.add(full);
+        current.set(next);
+    }
+
+    private long lastSequence() throws IOException {
+        List<Path> segments = segments(directory);
+        return segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+    }
+
+    private Segment open(long sequence) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(String.format("%s%012d%s", PREFIX, sequence, SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return new Segment(sequence, channel, buffer);
+    }
+
+    /**
+     * Fuerza a disco los segmentos con escrituras pendientes, cierra los segmentos llenos ya escritos,
+     * reintenta abrir un segmento si el último cambio falló y elimina los segmentos que exceden el máximo.
+     * Debe llamarse desde un único hilo.
+     */
+    public void flush() {
+        for (Segment segment : retired) {
+            segment.buffer.force();
+            if (segment.completed.get() >= capacity) {
+                retired.remove(segment);
+                closeChannel(segment);
+            }
+        }
+        Segment segment = current.get();
+        if (segment != null) {
+            segment.buffer.force();
+        } else if (!closed) {
+            reopen();
+        }
+        try {
+            prune();
+        } catch (IOException e) {
+            log.warn("No se pudieron eliminar los segmentos de auditoría antiguos", e);
+        }
+    }
+
+    /**
+     * Abre un segmento nuevo tras un cambio fallido (a continuación del último del directorio, por si el fallido
+     * alcanzó a crearse).
+     */
+    private void reopen() {
+        Segment next;
+        try {
+            next = open(lastSequence() + 1);
+        } catch (IOException e) {
+            log.error("No se pudo abrir un segmento de auditoría; los registros se siguen descartando", e);
+            return;
+        }
+        if (!current.compareAndSet(null, next) || closed && current.compareAndSet(next, null)) {
+            closeChannel(next);
+            return;
+        }
+        log.info("Auditoría reanudada en el segmento {}", next.sequence);
+    }
+
+    /**
+     * Elimina los segmentos más antiguos que exceden el máximo, salvo los que siguen abiertos.
+     */
+    private void prune() throws IOException {
+        if (maxSegments == 0) {
+            return;
+        }
+        List<Path> segments = segments(directory);
+        long oldestOpen = Long.MAX_VALUE;
+        Segment segment = current.get();
+        if (segment != null) {
+            oldestOpen = segment.sequence;
+        }
+        for (Segment open : retired) {
+            oldestOpen = Math.min(oldestOpen, open.sequence);
+        }
+        for (Path path : segments.subList(0, Math.max(0, segments.size() - maxSegments))) {
+            if (sequenceOf(path) < oldestOpen) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * @return Registros descartados por journal cerrado o segmento sin abrir
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Segment last = current.getAndSet(null);
+        if (last != null) {
+            retired.add(last);
+        }
+        for (Segment segment : retired) {
+            segment.buffer.force();
+            closeChannel(segment);
+        }
+        retired.clear();
+    }
+
+    private static void closeChannel(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el segmento de auditoría {}", segment.sequence, e);
+        }
+    }
+
+    /**
+     * Lee los registros de todos los segmentos del directorio, en orden de segmento y posición.
+     * Las posiciones sin escribir (reservadas por una escritura interrumpida o el final de un segmento) se omiten.
+     */
+    public static void read(Path directory, Consumer<AuditRecord> consumer) throws IOException {
+        for (Path path : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+                    AuditOutcome outcome = AuditOutcome.of(buffer.getInt(offset));
+                    if (outcome == null) {
+                        continue;
+                    }
+                    long most = buffer.getLong(offset + 16);
+                    long least = buffer.getLong(offset + 24);
+                    consumer.accept(new AuditRecord(
+                            Instant.ofEpochMilli(buffer.getLong(offset + 8)),
+                            most == 0 && least == 0 ? null : new UUID(most, least),
+                            buffer.getLong(offset + 32),
+                            outcome,
+                            buffer.getInt(offset + 4)));
+                }
+            }
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
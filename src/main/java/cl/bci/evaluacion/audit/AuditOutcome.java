@@ -0,0 +1,36 @@
+package cl.bci.evaluacion.audit;
+
+/**
+ * Resultado de un intento de registro. El código se guarda en el journal y nunca es 0
+ * (0 marca un registro sin escribir).
+ */
+public enum AuditOutcome {
+    CREATED(1),
+    DUPLICATE(2),
+    INVALID(3),
+    ERROR(4),
+    // Registro asíncrono encolado (202); su resultado posterior no se audita
+    ACCEPTED(5);
+
+    private final int code;
+
+    AuditOutcome(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return Resultado con el código, o null si no corresponde a ninguno
+     */
+    public static AuditOutcome of(int code) {
+        for (AuditOutcome outcome : values()) {
+            if (outcome.code == code) {
+                return outcome;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package cl.bci.evaluacion.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Registro de auditoría leído del journal.
+ *
+ * @param timestamp     Instante del intento (precisión de milisegundos)
+ * @param userId        Id del usuario creado, o null si no se creó
+ * @param emailHash     Hash del correo normalizado (EmailNormalizer.hash), 0 si no venía correo
+ * @param outcome       Resultado
+ * @param latencyMicros Latencia de la solicitud
+ */
+public record AuditRecord(Instant timestamp, UUID userId, long emailHash, AuditOutcome outcome, long latencyMicros) {
+}
@@ -0,0 +1,97 @@
+package cl.bci.evaluacion.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import cl.bci.evaluacion.util.EmailNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Auditoría de los intentos de registro (POST /api/users) en el {@link AuditJournal}.
+ * Como filtro marca el inicio de cada intento; UserController registra los creados y los asíncronos aceptados,
+ * y GlobalExceptionHandler los duplicados, inválidos y fallidos. Se conservan audit.max-segments segmentos. El journal se fuerza a disco cada audit.flush-interval-ms desde
+ * la tarea programada, fuera del camino de la solicitud.
+ */
+@Component
+public class RegistrationAuditor extends OncePerRequestFilter {
+    private static final String START_ATTRIBUTE = RegistrationAuditor.class.getName() + ".start";
+    private static final String EMAIL_ATTRIBUTE = RegistrationAuditor.class.getName() + ".email";
+    private static final String REGISTRATION_PATH = "/api/users";
+
+    private final AuditJournal journal;
+
+    public RegistrationAuditor(MeterRegistry meterRegistry,
+                               @Value("${audit.enabled:true}") boolean enabled,
+                               @Value("${audit.directory:./data/audit}") Path directory,
+                               @Value("${audit.segment-bytes:67108864}") int segmentBytes,
+                               @Value("${audit.max-segments:32}") int maxSegments) throws IOException {
+        this.journal = enabled ? new AuditJournal(directory, segmentBytes, maxSegments) : null;
+        if (journal != null) {
+            Gauge.builder("audit.journal.dropped", journal, AuditJournal::getDropped)
+                    .description("Registros de auditoría descartados")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return journal == null || !"POST".equals(request.getMethod())
+                || !request.getRequestURI().endsWith(REGISTRATION_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Asocia el correo al intento en curso, para los resultados que se registran desde el manejador de errores.
+     */
+    public void attempt(HttpServletRequest request, String email) {
+        request.setAttribute(EMAIL_ATTRIBUTE, email);
+    }
+
+    /**
+     * Registra el resultado del intento en curso. No hace nada si la solicitud no es un registro
+     * o si el resultado ya fue registrado.
+     *
+     * @param userId Id del usuario creado, o null
+     */
+    public void record(HttpServletRequest request, AuditOutcome outcome, UUID userId) {
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        String email = (String) request.getAttribute(EMAIL_ATTRIBUTE);
+        long emailHash = email != null ? EmailNormalizer.hash(EmailNormalizer.normalize(email)) : 0;
+        journal.append(System.currentTimeMillis(), userId, emailHash, outcome, (System.nanoTime() - start) / 1_000);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.flush-interval-ms:1000}")
+    public void flush() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
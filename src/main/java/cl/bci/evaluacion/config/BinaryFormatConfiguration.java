@@ -0,0 +1,27 @@
+package cl.bci.evaluacion.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Negociación de contenido binaria para clientes internos de alto volumen: application/cbor y
+ * application/x-jackson-smile, en solicitudes y respuestas (incluidos los cuerpos de error con "mensaje").
+ * Los ObjectMapper salen del mismo builder que el JSON de Spring Boot, así que nombres de campo,
+ * fechas y módulos son idénticos al contrato JSON. JSON sigue siendo el formato por defecto.
+ */
+@Configuration
+public class BinaryFormatConfiguration {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.cbor().build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.smile().build());
+    }
+}
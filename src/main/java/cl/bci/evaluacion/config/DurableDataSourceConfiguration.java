@@ -0,0 +1,36 @@
+package cl.bci.evaluacion.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource del perfil durable (H2 en archivo).
+ */
+@Configuration
+@Profile("durable")
+public class DurableDataSourceConfiguration {
+
+    /**
+     * Pool Hikari dimensionado según los núcleos disponibles.
+     * Las propiedades spring.datasource.hikari.* explícitas se enlazan después y tienen prioridad.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties,
+                                       @Value("${h2.durable.pool-per-core:2}") int poolPerCore) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        int cores = Runtime.getRuntime().availableProcessors();
+        dataSource.setPoolName("durable");
+        dataSource.setMaximumPoolSize(cores * poolPerCore + 1);
+        dataSource.setMinimumIdle(cores);
+        return dataSource;
+    }
+}
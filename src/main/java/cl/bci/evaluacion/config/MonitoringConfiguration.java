@@ -0,0 +1,29 @@
+package cl.bci.evaluacion.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.monitoring.SqlStatementCounter;
+import cl.bci.evaluacion.monitoring.TimedJacksonHttpMessageConverter;
+
+/**
+ * Configuración de monitoreo: conversor JSON que registra la serialización en JFR
+ * y conteo de sentencias SQL de Hibernate por hilo.
+ */
+@Configuration
+public class MonitoringConfiguration {
+
+    @Bean
+    TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
@@ -1,13 +1,17 @@
 package cl.bci.evaluacion.config;
 
+import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.security.SecurityScheme;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class OpenApiConfiguration {
+    // Token JWT entregado en el registro, requerido por PUT y PATCH de un usuario
+    public static final String BEARER_AUTH = "bearerAuth";
 
     @Bean
     public OpenAPI evaluacionOpenAPI() {
@@ -19,6 +23,11 @@ public class OpenApiConfiguration {
                         .contact(new Contact()
                                 .name("BCI")
                                 .url("https://www.bci.cl"))
-                        );
+                        )
+                .components(new Components()
+                        .addSecuritySchemes(BEARER_AUTH, new SecurityScheme()
+                                .type(SecurityScheme.Type.HTTP)
+                                .scheme("bearer")
+                                .bearerFormat("JWT")));
     }
 }
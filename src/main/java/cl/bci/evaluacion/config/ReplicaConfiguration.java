@@ -0,0 +1,71 @@
+package cl.bci.evaluacion.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import cl.bci.evaluacion.datasource.ReadWriteRoutingDataSource;
+import cl.bci.evaluacion.datasource.ReplicaRouter;
+import cl.bci.evaluacion.datasource.SchemaPopulator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * DataSources del perfil replica: primario para escrituras y réplica para transacciones readOnly.
+ */
+@Configuration
+@Profile("replica")
+public class ReplicaConfiguration {
+
+    /**
+     * Pools primario y réplica. Ambos publican métricas hikaricp.connections.* con tag pool=primary|replica.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties properties,
+                                                                 ReplicaRouter replicaRouter,
+                                                                 MeterRegistry meterRegistry,
+                                                                 SchemaPopulator schema,
+                                                                 @Value("${replica.url}") String replicaUrl,
+                                                                 @Value("${replica.pool-size:10}") int replicaPoolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(properties.getUsername());
+        replica.setPassword(properties.getPassword());
+        replica.setMaximumPoolSize(replicaPoolSize);
+        replica.setMetricRegistry(meterRegistry);
+        DatabasePopulatorUtils.execute(schema, replica);
+
+        Gauge.builder("replica.lag", replicaRouter, ReplicaRouter::lagMillis)
+                .description("Retraso de la réplica respecto al primario")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        return new ReadWriteRoutingDataSource(primary, replica, replicaRouter);
+    }
+
+    /**
+     * DataSource usado por JPA: la conexión se obtiene en la primera sentencia,
+     * cuando la transacción ya está marcada como readOnly.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
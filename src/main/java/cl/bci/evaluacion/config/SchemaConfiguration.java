@@ -0,0 +1,49 @@
+package cl.bci.evaluacion.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+
+import cl.bci.evaluacion.datasource.SchemaPopulator;
+
+/**
+ * Inicialización del esquema con spring.sql.init (perfiles durable y replica).
+ */
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class SchemaConfiguration {
+
+    /**
+     * Migraciones posteriores a schema.sql, también usadas por la réplica y los shards.
+     */
+    @Bean
+    public SchemaPopulator schemaPopulator(@Value("${jwt.expiration}") long tokenExpirationMs) {
+        return new SchemaPopulator(tokenExpirationMs);
+    }
+
+    /**
+     * Reemplaza al inicializador de Spring Boot: después de los scripts (schema.sql) ejecuta las migraciones
+     * de SchemaPopulator. Con spring.sql.init.mode=never no hace nada.
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                      SqlInitializationProperties properties,
+                                                                                      SchemaPopulator schema) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            public boolean initializeDatabase() {
+                boolean initialized = super.initializeDatabase();
+                if (initialized) {
+                    DatabasePopulatorUtils.execute(schema::migrate, dataSource);
+                }
+                return initialized;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package cl.bci.evaluacion.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import cl.bci.evaluacion.datasource.SchemaPopulator;
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.datasource.ShardRoutingDataSource;
+
+/**
+ * DataSource del perfil sharded: los usuarios se reparten en N bases según el hash del correo.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfiguration {
+
+    /**
+     * Crea un pool por shard, aplica schema.sql en cada uno y los expone tras un DataSource de enrutamiento.
+     */
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties,
+                                             ShardRouter shardRouter,
+                                             SchemaPopulator schema,
+                                             @Value("${sharding.url-template}") String urlTemplate,
+                                             @Value("${sharding.pool-size:10}") int poolSize) {
+        List<DataSource> shards = new ArrayList<>(shardRouter.getShards());
+        for (int i = 0; i < shardRouter.getShards(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + i);
+            shard.setJdbcUrl(urlTemplate.formatted(i));
+            shard.setUsername(properties.getUsername());
+            shard.setPassword(properties.getPassword());
+            shard.setMaximumPoolSize(poolSize);
+            DatabasePopulatorUtils.execute(schema, shard);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
@@ -1,22 +1,51 @@
 package cl.bci.evaluacion.controller;
 
+import cl.bci.evaluacion.audit.AuditOutcome;
+import cl.bci.evaluacion.audit.RegistrationAuditor;
+import cl.bci.evaluacion.config.OpenApiConfiguration;
+import cl.bci.evaluacion.model.dto.PhonesRequestDTO;
+import cl.bci.evaluacion.model.dto.RegistrationStatusDTO;
 import cl.bci.evaluacion.model.dto.UserRequestDTO;
 import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.AsyncRegistrationService;
+import cl.bci.evaluacion.service.UserExportService;
+import cl.bci.evaluacion.service.UserSearchService;
 import cl.bci.evaluacion.service.UserService;
+import cl.bci.evaluacion.util.JwtUtil;
+import cl.bci.evaluacion.util.UserSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api")
@@ -24,9 +53,21 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Usuarios", description = "Operaciones de registro de usuarios")
 public class UserController {
     private final UserService userService;
+    private final AsyncRegistrationService asyncRegistrationService;
+    private final UserExportService userExportService;
+    private final UserSearchService userSearchService;
+    private final RegistrationAuditor registrationAuditor;
+    private final JwtUtil jwtUtil;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AsyncRegistrationService asyncRegistrationService,
+                          UserExportService userExportService, UserSearchService userSearchService,
+                          RegistrationAuditor registrationAuditor, JwtUtil jwtUtil) {
         this.userService = userService;
+        this.asyncRegistrationService = asyncRegistrationService;
+        this.userExportService = userExportService;
+        this.userSearchService = userSearchService;
+        this.registrationAuditor = registrationAuditor;
+        this.jwtUtil = jwtUtil;
     }
 
     @PostMapping("/users")
@@ -37,8 +78,181 @@ public class UserController {
             @ApiResponse(responseCode = "400", description = "Datos inválidos o correo duplicado",
                     content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<UserResponseDTO> registerUser(@Valid @RequestBody UserRequestDTO request) {
+    public ResponseEntity<UserResponseDTO> registerUser(@Valid @RequestBody UserRequestDTO request,
+                                                        HttpServletRequest httpRequest) {
+        // Los intentos rechazados se auditan en GlobalExceptionHandler
+        registrationAuditor.attempt(httpRequest, request.getEmail());
         UserResponseDTO response = userService.registerUser(request);
+        registrationAuditor.record(httpRequest, AuditOutcome.CREATED, response.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    @PostMapping(value = "/users", headers = "Prefer=respond-async")
+    @Operation(summary = "Registrar nuevo usuario en forma asíncrona",
+            description = "Valida la solicitud, la encola y retorna 202 con la URL de estado (header Prefer: respond-async)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Registro aceptado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = RegistrationStatusDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Cola de registro llena",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<?> registerUserAsync(@Valid @RequestBody UserRequestDTO request,
+                                               HttpServletRequest httpRequest) {
+        if (!asyncRegistrationService.isEnabled()) {
+            return registerUser(request, httpRequest);
+        }
+        // Los rechazos (validación o cola llena) se auditan en GlobalExceptionHandler
+        registrationAuditor.attempt(httpRequest, request.getEmail());
+        RegistrationStatusDTO status = asyncRegistrationService.submit(request);
+        registrationAuditor.record(httpRequest, AuditOutcome.ACCEPTED, null);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/users/registrations/" + status.getId()))
+                .body(status);
+    }
+
+    @GetMapping("/users/registrations/{id}")
+    @Operation(summary = "Estado de un registro asíncrono", description = "Retorna PENDING, CREATED (con el usuario) o REJECTED (con mensaje)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado del registro",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = RegistrationStatusDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Registro no encontrado, expirado o aceptado antes de un reinicio "
+                    + "(los estados se guardan solo en memoria)",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<RegistrationStatusDTO> getRegistrationStatus(@PathVariable UUID id) {
+        return ResponseEntity.ok(asyncRegistrationService.status(id));
+    }
+
+    @GetMapping("/users/export")
+    @Operation(summary = "Exportar usuarios",
+            description = "Exporta todos los usuarios (sin contraseña ni token) en CSV o NDJSON, opcionalmente con gzip")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación en curso (respuesta en streaming)"),
+            @ApiResponse(responseCode = "404", description = "Exportación por HTTP deshabilitada")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "CSV") UserExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!userExportService.isHttpEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        String filename = "users." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> userExportService.export(out, format, gzip));
+    }
+
+    @GetMapping("/users/search")
+    @Operation(summary = "Buscar usuarios",
+            description = "Busca usuarios cuyo correo o nombre contenga el texto (al menos 3 caracteres, sin distinguir mayúsculas ni tildes). "
+                    + "Requiere un token válido",
+            security = @SecurityRequirement(name = OpenApiConfiguration.BEARER_AUTH))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuarios encontrados (id, email y name)"),
+            @ApiResponse(responseCode = "400", description = "Texto de búsqueda muy corto o límite menor que 1",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Token ausente, inválido o vencido",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Búsqueda deshabilitada")
+    })
+    public ResponseEntity<List<UserSearchIndex.Match>> searchUsers(@RequestParam String q,
+                                                                    @RequestParam(defaultValue = "20") int limit,
+                                                                    @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (!userSearchService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        jwtUtil.authenticate(authorization);
+        return ResponseEntity.ok(userSearchService.search(q, limit));
+    }
+
+    @GetMapping("/users/{id}")
+    @Operation(summary = "Obtener usuario",
+            description = "Obtiene un usuario por su identificador. Con fields (ej. id,email,isactive) retorna solo esos campos; "
+                    + "el ETag deriva de modified y con If-None-Match vigente responde 304 sin cuerpo. Requiere el token del propio usuario",
+            security = @SecurityRequirement(name = OpenApiConfiguration.BEARER_AUTH))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuario encontrado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Usuario sin cambios desde el ETag indicado"),
+            @ApiResponse(responseCode = "400", description = "Campo inválido en fields",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Token ausente, inválido o vencido",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "El token es de otro usuario",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<?> getUser(@PathVariable UUID id,
+                                     @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                     @RequestParam(required = false) Set<String> fields) {
+        String subject = jwtUtil.authenticate(authorization);
+        // Con ETag en la respuesta, Spring compara If-None-Match y responde 304 sin serializar el cuerpo
+        if (fields == null || fields.isEmpty()) {
+            UserResponseDTO user = userService.findUser(id, subject);
+            return ResponseEntity.ok().eTag(etag(user.getModified())).body(user);
+        }
+        UserService.UserFields user = userService.findUserFields(id, subject, fields);
+        return ResponseEntity.ok().eTag(etag(user.modified())).body(user.values());
+    }
+
+    @PutMapping("/users/{id}")
+    @Operation(summary = "Actualizar usuario",
+            description = "Reemplaza nombre, contraseña y teléfonos (el correo no se puede modificar); "
+                    + "solo se insertan y eliminan los teléfonos que cambian. Requiere el token del propio usuario",
+            security = @SecurityRequirement(name = OpenApiConfiguration.BEARER_AUTH))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuario actualizado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos o cambio de correo",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Token ausente, inválido o vencido",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "El token es de otro usuario",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<UserResponseDTO> updateUser(@PathVariable UUID id,
+                                                      @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                      @Valid @RequestBody UserRequestDTO request) {
+        String subject = jwtUtil.authenticate(authorization);
+        UserResponseDTO user = userService.updateUser(id, subject, request);
+        return ResponseEntity.ok().eTag(etag(user.getModified())).body(user);
+    }
+
+    @PatchMapping("/users/{id}/phones")
+    @Operation(summary = "Actualizar teléfonos",
+            description = "Reemplaza los teléfonos del usuario insertando y eliminando solo los que cambian "
+                    + "(identidad: countrycode, citycode y number). Requiere el token del propio usuario",
+            security = @SecurityRequirement(name = OpenApiConfiguration.BEARER_AUTH))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Teléfonos actualizados",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Token ausente, inválido o vencido",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "El token es de otro usuario",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<UserResponseDTO> updatePhones(@PathVariable UUID id,
+                                                        @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                        @Valid @RequestBody PhonesRequestDTO request) {
+        String subject = jwtUtil.authenticate(authorization);
+        UserResponseDTO user = userService.updatePhones(id, subject, request.getPhones());
+        return ResponseEntity.ok().eTag(etag(user.getModified())).body(user);
+    }
+
+    /**
+     * ETag débil: la misma versión del usuario se representa distinto según fields y Accept.
+     */
+    private static String etag(LocalDateTime modified) {
+        return "W/\"" + Long.toHexString(modified.toEpochSecond(ZoneOffset.UTC)) + "." + Integer.toHexString(modified.getNano()) + "\"";
+    }
 }
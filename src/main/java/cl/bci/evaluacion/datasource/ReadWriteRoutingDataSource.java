@@ -0,0 +1,49 @@
+package cl.bci.evaluacion.datasource;
+
+import java.io.Closeable;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource que enruta las transacciones readOnly a la réplica según {@link ReplicaRouter}.
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy, para que la conexión se obtenga
+ * una vez marcada la transacción como readOnly.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReplicaRouter replicaRouter;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica, ReplicaRouter replicaRouter) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaRouter = replicaRouter;
+        setTargetDataSources(Map.<Object, Object>of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaRouter.useReplica() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+        replica.close();
+    }
+}
@@ -0,0 +1,109 @@
+package cl.bci.evaluacion.datasource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decide si una conexión se obtiene de la réplica o del primario.
+ * Sólo las transacciones readOnly van a la réplica, y sólo si su retraso está dentro de la tolerancia.
+ * Con read-your-writes, las lecturas de un usuario recién registrado van al primario
+ * hasta que la réplica lo haya sincronizado.
+ */
+@Component
+public class ReplicaRouter {
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final boolean readYourWrites;
+    private final long maxLagMs;
+    private final Map<UUID, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile long syncedUpTo;
+
+    public ReplicaRouter(@Value("${replica.enabled:false}") boolean enabled,
+                         @Value("${replica.read-your-writes:true}") boolean readYourWrites,
+                         @Value("${replica.max-lag-ms:1000}") long maxLagMs) {
+        this.enabled = enabled;
+        this.readYourWrites = readYourWrites;
+        this.maxLagMs = maxLagMs;
+    }
+
+    /**
+     * Indica si la conexión actual debe obtenerse de la réplica.
+     */
+    public boolean useReplica() {
+        return enabled
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCE_PRIMARY.get() == null
+                && lagMillis() <= maxLagMs;
+    }
+
+    /**
+     * Ejecuta una lectura de un usuario, forzando el primario si fue escrito y la réplica aún no lo tiene.
+     */
+    public <T> T read(UUID userId, Supplier<T> query) {
+        if (!recentWrites.containsKey(userId)) {
+            return query.get();
+        }
+        return withForcePrimary(Boolean.TRUE, query);
+    }
+
+    /**
+     * Estado de read-your-writes del hilo actual, para reaplicarlo en otro hilo con {@link #withForcePrimary}.
+     */
+    static Boolean forcePrimary() {
+        return FORCE_PRIMARY.get();
+    }
+
+    /**
+     * Ejecuta una operación con el estado de read-your-writes indicado y luego restaura el anterior.
+     */
+    static <T> T withForcePrimary(Boolean forcePrimary, Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        if (forcePrimary == null) {
+            FORCE_PRIMARY.remove();
+        } else {
+            FORCE_PRIMARY.set(forcePrimary);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Registra la escritura confirmada de un usuario.
+     */
+    public void recordWrite(UUID userId) {
+        if (enabled && readYourWrites) {
+            recentWrites.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Registra que la réplica contiene todo lo confirmado antes del instante indicado.
+     *
+     * @param upToMillis Inicio de la última sincronización exitosa (epoch ms)
+     */
+    public void markSynced(long upToMillis) {
+        syncedUpTo = upToMillis;
+        recentWrites.values().removeIf(writtenAt -> writtenAt < upToMillis);
+    }
+
+    /**
+     * Retraso de la réplica respecto al primario en ms.
+     */
+    public long lagMillis() {
+        return System.currentTimeMillis() - syncedUpTo;
+    }
+}
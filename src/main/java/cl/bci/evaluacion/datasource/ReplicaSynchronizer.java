@@ -0,0 +1,86 @@
+package cl.bci.evaluacion.datasource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sustituto local de la replicación: copia periódicamente al H2 réplica los usuarios
+ * modificados en el primario (y sus teléfonos). No replica eliminaciones de usuarios.
+ * Antes de los usuarios copia los diccionarios de códigos de teléfono, que los teléfonos
+ * referencian por id; son tablas pequeñas (solo los códigos configurados) y se copian completas.
+ */
+@Slf4j
+@Component
+@Profile("replica")
+public class ReplicaSynchronizer {
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate replicaTransaction;
+    private final ReplicaRouter replicaRouter;
+    private final long overlapMs;
+    private LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public ReplicaSynchronizer(ReadWriteRoutingDataSource dataSource,
+                               ReplicaRouter replicaRouter,
+                               @Value("${replica.sync-overlap-ms:5000}") long overlapMs) {
+        this.primary = new JdbcTemplate(dataSource.getPrimary());
+        this.replica = new JdbcTemplate(dataSource.getReplica());
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource.getReplica()));
+        this.replicaRouter = replicaRouter;
+        this.overlapMs = overlapMs;
+    }
+
+    /**
+     * Copia los cambios desde la marca de agua anterior. Se relee un margen (overlap) para no perder
+     * transacciones que confirmaron después de la sincronización anterior con un modified anterior a ella.
+     */
+    @Scheduled(fixedDelayString = "${replica.sync-interval-ms:200}")
+    public void sync() {
+        long syncStart = System.currentTimeMillis();
+        LocalDateTime syncStartTime = LocalDateTime.now();
+        Timestamp from = Timestamp.valueOf(watermark);
+
+        List<Map<String, Object>> users = primary.queryForList("SELECT * FROM users WHERE modified >= ?", from);
+        if (!users.isEmpty()) {
+            List<Map<String, Object>> phones = primary.queryForList(
+                    "SELECT p.* FROM phones p JOIN users u ON u.id = p.user_id WHERE u.modified >= ?", from);
+            List<Map<String, Object>> countryCodes = primary.queryForList("SELECT * FROM phone_country_codes");
+            List<Map<String, Object>> cityCodes = primary.queryForList("SELECT * FROM phone_city_codes");
+            replicaTransaction.executeWithoutResult(status -> {
+                merge("phone_country_codes", countryCodes);
+                merge("phone_city_codes", cityCodes);
+                merge("users", users);
+                replica.batchUpdate("DELETE FROM phones WHERE user_id = ?",
+                        users.stream().map(user -> new Object[] {user.get("id")}).toList());
+                merge("phones", phones);
+            });
+            log.debug("Réplica sincronizada: {} usuarios, {} teléfonos", users.size(), phones.size());
+        }
+
+        watermark = syncStartTime.minusNanos(overlapMs * 1_000_000);
+        replicaRouter.markSynced(syncStart);
+    }
+
+    private void merge(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY (id) VALUES ("
+                + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        replica.batchUpdate(sql, rows.stream().map(row -> row.values().toArray()).toList());
+    }
+}
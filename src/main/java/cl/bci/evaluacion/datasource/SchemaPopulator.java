@@ -0,0 +1,119 @@
+package cl.bci.evaluacion.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import cl.bci.evaluacion.util.EmailNormalizer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Aplica schema.sql y completa la migración de las bases creadas con versiones anteriores en lo que depende
+ * de la aplicación: el vencimiento de los tokens existentes (jwt.expiration) y email_hash, que se obtiene con
+ * EmailNormalizer (SHA-256 del correo normalizado). Idempotente.
+ * Se usa en cada base donde se aplica schema.sql (spring.sql.init, réplica y shards).
+ */
+@Slf4j
+public class SchemaPopulator implements DatabasePopulator {
+    private static final int BATCH_SIZE = 1000;
+    private final long tokenExpirationMs;
+
+    public SchemaPopulator(long tokenExpirationMs) {
+        this.tokenExpirationMs = tokenExpirationMs;
+    }
+
+    @Override
+    public void populate(Connection connection) throws SQLException {
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        migrate(connection);
+    }
+
+    /**
+     * Migra una base a la que ya se aplicó schema.sql.
+     */
+    public void migrate(Connection connection) throws SQLException {
+        migrateTokenExpires(connection);
+        migrateEmailHash(connection);
+    }
+
+    /**
+     * Tokens anteriores a token_expires: vencen jwt.expiration después de created, cuando se emitieron.
+     */
+    private void migrateTokenExpires(Connection connection) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE users "
+                + "SET token_expires = DATEADD('MILLISECOND', ?, created) WHERE token_expires IS NULL AND token IS NOT NULL")) {
+            update.setLong(1, tokenExpirationMs);
+            int updated = update.executeUpdate();
+            if (updated > 0) {
+                log.info("Tokens con vencimiento asignado: {}", updated);
+            }
+        }
+    }
+
+    /**
+     * users anterior a email_hash: normaliza los correos, calcula su hash y agrega la restricción única.
+     * Si dos correos coinciden al normalizarlos no modifica los datos y falla indicándolos.
+     */
+    private void migrateEmailHash(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users ADD COLUMN IF NOT EXISTS email_hash BIGINT");
+
+            List<Object[]> pending = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("SELECT id, email FROM users WHERE email_hash IS NULL")) {
+                while (rs.next()) {
+                    String email = EmailNormalizer.normalize(rs.getString("email"));
+                    pending.add(new Object[] {email, EmailNormalizer.hash(email), rs.getObject("id", UUID.class)});
+                }
+            }
+            if (!pending.isEmpty()) {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE users SET email = ?, email_hash = ? WHERE id = ?")) {
+                    for (int i = 0; i < pending.size(); i++) {
+                        Object[] row = pending.get(i);
+                        update.setString(1, (String) row[0]);
+                        update.setLong(2, (Long) row[1]);
+                        update.setObject(3, row[2]);
+                        update.addBatch();
+                        if ((i + 1) % BATCH_SIZE == 0 || i == pending.size() - 1) {
+                            update.executeBatch();
+                        }
+                    }
+                }
+                List<String> duplicates = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT email FROM users GROUP BY email HAVING COUNT(*) > 1")) {
+                    while (rs.next()) {
+                        duplicates.add(rs.getString("email"));
+                    }
+                }
+                if (!duplicates.isEmpty()) {
+                    connection.rollback();
+                    throw new IllegalStateException(
+                            "Correos duplicados al normalizarlos, deben resolverse antes de migrar: " + duplicates);
+                }
+                connection.commit();
+                log.info("Usuarios migrados a email_hash: {}", pending.size());
+            }
+
+            statement.execute("ALTER TABLE users ALTER COLUMN email_hash SET NOT NULL");
+            statement.execute("ALTER TABLE users ADD CONSTRAINT IF NOT EXISTS uk_users_email_hash UNIQUE (email_hash)");
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
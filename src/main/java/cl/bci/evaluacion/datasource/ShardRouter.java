@@ -0,0 +1,111 @@
+package cl.bci.evaluacion.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import cl.bci.evaluacion.util.EmailNormalizer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Selecciona el shard de las operaciones de usuario según el hash del correo normalizado.
+ * Con un único shard (perfil por defecto) las operaciones se ejecutan sin cambios.
+ * El shard debe seleccionarse antes de iniciar la transacción, ya que la conexión
+ * se obtiene al comenzar ésta.
+ */
+@Component
+public class ShardRouter {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shards;
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardRouter(@Value("${sharding.shards:1}") int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("sharding.shards debe ser mayor a 0");
+        }
+        this.shards = shards;
+    }
+
+    static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Shard al que pertenece un correo.
+     */
+    public int shardOf(String email) {
+        return (int) Math.floorMod(EmailNormalizer.hash(EmailNormalizer.normalize(email)), (long) shards);
+    }
+
+    /**
+     * Ejecuta una operación en el shard al que pertenece el correo.
+     */
+    public <T> T onShardOf(String email, Supplier<T> action) {
+        return shards == 1 ? action.get() : onShard(shardOf(email), action);
+    }
+
+    /**
+     * Ejecuta una operación en un shard específico.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una consulta de listado en todos los shards en paralelo y concatena los resultados.
+     * Cada consulta corre en su propio hilo virtual con el estado de read-your-writes del llamador
+     * ({@link ReplicaRouter}), para que una lectura forzada al primario no termine en la réplica.
+     */
+    public <T> List<T> scatter(Supplier<List<T>> query) {
+        if (shards == 1) {
+            return query.get();
+        }
+        Boolean forcePrimary = ReplicaRouter.forcePrimary();
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> ReplicaRouter.withForcePrimary(forcePrimary, () -> onShard(shard, query)), scatterExecutor));
+        }
+        List<T> result = new ArrayList<>();
+        futures.forEach(future -> result.addAll(future.join()));
+        return result;
+    }
+
+    /**
+     * Busca en todos los shards y retorna el primer resultado encontrado.
+     */
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> query) {
+        if (shards == 1) {
+            return query.get();
+        }
+        return scatter(() -> query.get().stream().toList()).stream().findFirst();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatterExecutor.shutdown();
+    }
+}
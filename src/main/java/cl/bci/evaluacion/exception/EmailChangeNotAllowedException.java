@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class EmailChangeNotAllowedException extends RuntimeException {
+    public EmailChangeNotAllowedException(String message) {
+        super(message);
+    }
+}
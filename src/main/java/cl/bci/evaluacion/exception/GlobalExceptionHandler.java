@@ -1,13 +1,19 @@
 package cl.bci.evaluacion.exception;
 
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import cl.bci.evaluacion.audit.AuditOutcome;
+import cl.bci.evaluacion.audit.RegistrationAuditor;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
@@ -18,15 +24,94 @@ import java.util.Map;
 public class GlobalExceptionHandler {
     private static final String MENSAJE_KEY = "mensaje";
 
+    private final RegistrationAuditor registrationAuditor;
+
+    public GlobalExceptionHandler(RegistrationAuditor registrationAuditor) {
+        this.registrationAuditor = registrationAuditor;
+    }
+
     @ExceptionHandler(DuplicateEmailException.class)
-    public ResponseEntity<Map<String, String>> handleDuplicateEmail(DuplicateEmailException ex) {
+    public ResponseEntity<Map<String, String>> handleDuplicateEmail(DuplicateEmailException ex, HttpServletRequest request) {
+        registrationAuditor.record(request, AuditOutcome.DUPLICATE, null);
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleUserNotFound(UserNotFoundException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(RegistrationNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleRegistrationNotFound(RegistrationNotFoundException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(RegistrationQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleRegistrationQueueFull(RegistrationQueueFullException ex,
+                                                                           HttpServletRequest request) {
+        registrationAuditor.record(request, AuditOutcome.ERROR, null);
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @ExceptionHandler(EmailChangeNotAllowedException.class)
+    public ResponseEntity<Map<String, String>> handleEmailChangeNotAllowed(EmailChangeNotAllowedException ex) {
         Map<String, String> response = new HashMap<>();
         response.put(MENSAJE_KEY, ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidToken(InvalidTokenException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(response);
+    }
+
+    @ExceptionHandler(UserAccessNotAllowedException.class)
+    public ResponseEntity<Map<String, String>> handleUserAccessNotAllowed(UserAccessNotAllowedException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
+    @ExceptionHandler(InvalidFieldException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidField(InvalidFieldException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidQuery(InvalidQueryException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put(MENSAJE_KEY, "Parámetro inválido: " + ex.getName());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
+    public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex,
+                                                                         HttpServletRequest request) {
+        if (ex.getTarget() instanceof UserRequestDTO userRequest) {
+            registrationAuditor.attempt(request, userRequest.getEmail());
+        }
+        registrationAuditor.record(request, AuditOutcome.INVALID, null);
         Map<String, String> response = new HashMap<>();
         
         String errorMessage = ex.getBindingResult().getAllErrors().stream()
@@ -46,8 +131,9 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
+    public ResponseEntity<Map<String, String>> handleGenericException(Exception ex, HttpServletRequest request) {
         log.error("Error interno del servidor", ex);
+        registrationAuditor.record(request, AuditOutcome.ERROR, null);
         Map<String, String> response = new HashMap<>();
         response.put(MENSAJE_KEY, "Error interno del servidor");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class InvalidFieldException extends RuntimeException {
+    public InvalidFieldException(String message) {
+        super(message);
+    }
+}
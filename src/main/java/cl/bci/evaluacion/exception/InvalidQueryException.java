@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class InvalidQueryException extends RuntimeException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
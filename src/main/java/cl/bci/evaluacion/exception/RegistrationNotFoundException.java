@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class RegistrationNotFoundException extends RuntimeException {
+    public RegistrationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class RegistrationQueueFullException extends RuntimeException {
+    public RegistrationQueueFullException(String message) {
+        super(message);
+    }
+}
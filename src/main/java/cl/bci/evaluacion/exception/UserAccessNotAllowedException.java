@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class UserAccessNotAllowedException extends RuntimeException {
+    public UserAccessNotAllowedException(String message) {
+        super(message);
+    }
+}
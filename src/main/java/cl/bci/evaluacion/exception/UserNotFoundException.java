@@ -0,0 +1,7 @@
+package cl.bci.evaluacion.exception;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+}
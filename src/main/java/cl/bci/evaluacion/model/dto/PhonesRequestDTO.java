@@ -0,0 +1,20 @@
+package cl.bci.evaluacion.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhonesRequestDTO {
+    @NotEmpty(message = "Al menos un teléfono es requerido")
+    @Valid
+    private List<PhoneDTO> phones;
+}
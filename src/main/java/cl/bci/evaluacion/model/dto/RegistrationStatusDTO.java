@@ -0,0 +1,27 @@
+package cl.bci.evaluacion.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistrationStatusDTO {
+    public enum Status { PENDING, CREATED, REJECTED }
+
+    private UUID id;
+    private Status status;
+
+    // Presente cuando status = CREATED
+    private UserResponseDTO user;
+
+    // Presente cuando status = REJECTED
+    private String mensaje;
+}
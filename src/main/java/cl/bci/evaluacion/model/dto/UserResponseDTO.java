@@ -1,5 +1,6 @@
 package cl.bci.evaluacion.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,6 +29,8 @@ public class UserResponseDTO {
     @JsonProperty("last_login")
     private LocalDateTime lastLogin;
 
+    // Solo en la respuesta del registro; las lecturas lo omiten
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String token;
 
     @JsonProperty("isactive")
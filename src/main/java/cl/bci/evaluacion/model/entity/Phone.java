@@ -2,8 +2,10 @@ package cl.bci.evaluacion.model.entity;
 
 import java.util.UUID;
 
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -11,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,6 +22,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "phones")
+@EntityListeners(PhoneCodeDictionary.PhoneCodeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,12 +36,25 @@ public class Phone {
     @Column(nullable = false)
     private String number;
 
-    @Column(nullable = false)
+    // Códigos del teléfono; PhoneCodeListener los guarda como id del diccionario si son conocidos y si no como texto
+    @Transient
     private String citycode;
 
-    @Column(nullable = false)
+    @Transient
     private String countrycode;
 
+    @Column(name = "citycode_id")
+    private Integer citycodeId;
+
+    @Column(name = "citycode")
+    private String citycodeText;
+
+    @Column(name = "countrycode_id")
+    private Integer countrycodeId;
+
+    @Column(name = "countrycode")
+    private String countrycodeText;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,27 @@
+package cl.bci.evaluacion.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Código de país de los teléfonos (phones.countrycode_id). Lo administra PhoneCodeDictionary.
+ */
+@Entity
+@Table(name = "phone_country_codes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhoneCountryCode {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String code;
+}
@@ -1,5 +1,6 @@
 package cl.bci.evaluacion.model.entity;
 
+import cl.bci.evaluacion.util.EmailNormalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,17 +9,26 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_HASH_CONSTRAINT, columnNames = "email_hash"),
+        indexes = {
+                @Index(name = "idx_users_token_expires", columnList = "token_expires, id"),
+                @Index(name = "idx_users_is_active", columnList = "is_active, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
+    // Restricción única de email_hash (también en schema.sql)
+    public static final String EMAIL_HASH_CONSTRAINT = "uk_users_email_hash";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -26,9 +36,14 @@ public class User {
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false, unique = true)
+    // Correo normalizado (minúsculas); la unicidad se controla con email_hash
+    @Column(nullable = false)
     private String email;
 
+    // Hash de 64 bits del correo normalizado, con índice único
+    @Column(name = "email_hash", nullable = false)
+    private long emailHash;
+
     @Column(nullable = false)
     private String password;
 
@@ -41,18 +56,28 @@ public class User {
     @Column(name = "last_login", nullable = false)
     private LocalDateTime lastLogin;
 
-    @Column(nullable = false)
+    // null una vez que el barrido limpia un token vencido o de un usuario inactivo
     private String token;
 
+    // Vencimiento del token (jwt.expiration); null si no hay token
+    @Column(name = "token_expires")
+    private LocalDateTime tokenExpires;
+
     @Column(nullable = false)
     private boolean isActive;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Phone> phones;
 
+    // Teléfonos empaquetados en JSON (phones.storage=packed); null si están en la tabla phones. CLOB: sin límite de teléfonos
+    @Lob
+    @Column(name = "phones_packed")
+    private String phonesPacked;
+
     @PrePersist
     protected void onCreate() {
-        LocalDateTime now = LocalDateTime.now();
+        normalizeEmail();
+        LocalDateTime now = now();
         created = now;
         modified = now;
         lastLogin = now;
@@ -61,6 +86,32 @@ public class User {
 
     @PreUpdate
     protected void onUpdate() {
-        modified = LocalDateTime.now();
+        normalizeEmail();
+        modified = now();
+    }
+
+    /**
+     * Marca el usuario como modificado cuando solo cambian sus teléfonos (lado inverso de la relación,
+     * que no ensucia la entidad): fuerza el UPDATE y con él {@link #onUpdate()}.
+     */
+    public void touch() {
+        modified = now();
+    }
+
+    /**
+     * Instante actual con la precisión de las columnas TIMESTAMP (microsegundos), para que el valor en memoria
+     * (y el ETag derivado de modified) sea igual al que se leerá después de la base de datos. También lo usan
+     * los inserts JDBC del group commit.
+     */
+    public static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Normaliza el correo y recalcula su hash.
+     */
+    public void normalizeEmail() {
+        email = EmailNormalizer.normalize(email);
+        emailHash = EmailNormalizer.hash(email);
     }
 }
@@ -0,0 +1,78 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra los bytes asignados por el hilo que atiende la solicitud en la métrica
+ * http.server.requests.allocated (histograma con tags method, uri y status).
+ * Se mide una fracción de las solicitudes (allocation.metrics.sample-rate) para que el costo sea despreciable;
+ * las solicitudes asíncronas no se registran porque parte del trabajo ocurre en otro hilo.
+ * Consultar en /actuator/metrics/http.server.requests.allocated?tag=uri:/api/users&tag=status:201
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AllocationMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final com.sun.management.ThreadMXBean threads;
+    private final double sampleRate;
+    private final boolean enabled;
+
+    public AllocationMetricsFilter(MeterRegistry meterRegistry,
+                                   @Value("${allocation.metrics.enabled:true}") boolean enabled,
+                                   @Value("${allocation.metrics.sample-rate:0.01}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() ? bean : null;
+        this.enabled = enabled && threads != null && sampleRate > 0;
+        if (this.enabled && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null && !request.isAsyncStarted()) {
+                DistributionSummary.builder("http.server.requests.allocated")
+                        .description("Bytes asignados por el hilo de la solicitud")
+                        .baseUnit("bytes")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern.toString())
+                        .tag("status", String.valueOf(response.getStatus()))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1024.0)
+                        .maximumExpectedValue(64.0 * 1024 * 1024)
+                        .register(meterRegistry)
+                        .record(allocated);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "DbFlush")
+@Label("Persistencia del usuario")
+public class DbFlushEvent extends RegistrationStageEvent {
+}
@@ -0,0 +1,9 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "EmailCheck")
+@Label("Chequeo de correo duplicado")
+public class EmailCheckEvent extends RegistrationStageEvent {
+}
@@ -0,0 +1,43 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Endpoint de Actuator /actuator/jfr: descarga la grabación JFR actual (application/octet-stream).
+ * El volcado se transmite desde un archivo temporal, que se elimina al cerrar el stream de la respuesta.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@AllArgsConstructor
+public class JfrEndpoint {
+    private final JfrRecorder jfrRecorder;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() throws IOException {
+        if (!jfrRecorder.isRecording()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("evaluacion-", ".jfr");
+        try {
+            jfrRecorder.dump(file);
+            // Sin cargar el volcado (hasta jfr.max-size-mb) en memoria
+            return new WebEndpointResponse<>(new InputStreamResource(
+                    Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+}
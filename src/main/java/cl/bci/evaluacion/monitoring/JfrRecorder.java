@@ -0,0 +1,89 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Grabación JFR permanente con solo los eventos de etapas del registro, sin agente ni perfiles de JDK.
+ * Los eventos bajo jfr.threshold-ms no se graban; la grabación se acota por edad y tamaño.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+public class JfrRecorder {
+    static final List<Class<? extends Event>> EVENTS = List.of(
+            ValidationEvent.class,
+            EmailCheckEvent.class,
+            PasswordHashEvent.class,
+            JwtSignEvent.class,
+            DbFlushEvent.class,
+            SerializationEvent.class);
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    public JfrRecorder(@Value("${jfr.enabled:true}") boolean enabled,
+                       @Value("${jfr.threshold-ms:5}") long thresholdMs,
+                       @Value("${jfr.max-age-minutes:60}") long maxAgeMinutes,
+                       @Value("${jfr.max-size-mb:64}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        recording = new Recording();
+        recording.setName("evaluacion-registro");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        EVENTS.forEach(type -> recording.enable(type).withThreshold(threshold).withoutStackTrace());
+        recording.start();
+        log.info("Grabación JFR iniciada (umbral {} ms)", threshold.toMillis());
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Copia el contenido actual de la grabación a un archivo .jfr; la grabación continúa.
+     *
+     * @param target Archivo destino
+     */
+    public void dump(Path target) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("La grabación JFR está deshabilitada (jfr.enabled=false)");
+        }
+        Files.deleteIfExists(target);
+        recording.dump(target);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Resume la latencia por etapa de registro a partir de un archivo .jfr (p. ej. descargado desde /actuator/jfr).
+ * Ejecutar con: ./gradlew jfrSummary -Pjfr=registro.jfr
+ */
+public final class JfrStageSummary {
+
+    /**
+     * Latencias de una etapa, en microsegundos.
+     */
+    public record StageStats(String stage, long count, double p50, double p99, double max) {
+    }
+
+    private JfrStageSummary() {
+    }
+
+    /**
+     * @param file Archivo .jfr
+     * @return Estadísticas por etapa, ordenadas por nombre
+     */
+    public static List<StageStats> summarize(Path file) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.startsWith(RegistrationStageEvent.PREFIX)) {
+                durations.computeIfAbsent(name.substring(RegistrationStageEvent.PREFIX.length()), stage -> new ArrayList<>())
+                        .add(event.getDuration().toNanos());
+            }
+        }
+        List<StageStats> stats = new ArrayList<>(durations.size());
+        durations.forEach((stage, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            stats.add(new StageStats(stage, sorted.length,
+                    sorted[sorted.length / 2] / 1_000.0,
+                    sorted[(int) (sorted.length * 0.99)] / 1_000.0,
+                    sorted[sorted.length - 1] / 1_000.0));
+        });
+        return stats;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: JfrStageSummary <archivo.jfr>");
+            System.exit(1);
+        }
+        System.out.printf("%-15s %10s %12s %12s %12s%n", "etapa", "eventos", "p50 (us)", "p99 (us)", "max (us)");
+        for (StageStats stage : summarize(Path.of(args[0]))) {
+            System.out.printf("%-15s %10d %12.1f %12.1f %12.1f%n",
+                    stage.stage(), stage.count(), stage.p50(), stage.p99(), stage.max());
+        }
+    }
+}
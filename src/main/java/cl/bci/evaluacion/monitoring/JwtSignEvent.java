@@ -0,0 +1,9 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "JwtSign")
+@Label("Firma del token JWT")
+public class JwtSignEvent extends RegistrationStageEvent {
+}
@@ -0,0 +1,9 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "PasswordHash")
+@Label("Cifrado BCrypt de la contraseña")
+public class PasswordHashEvent extends RegistrationStageEvent {
+}
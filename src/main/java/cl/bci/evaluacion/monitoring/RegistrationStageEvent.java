@@ -0,0 +1,18 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Base de los eventos JFR de las etapas del registro. Sin stack trace y con umbral por defecto,
+ * de modo que solo se graban las ejecuciones lentas; la grabación permanente puede cambiar el umbral.
+ * Uso: {@code event.begin(); ...; event.commit();} (costo casi nulo si el evento no está habilitado).
+ */
+@Category({"Evaluacion", "Registro"})
+@StackTrace(false)
+@Threshold("5 ms")
+public abstract class RegistrationStageEvent extends Event {
+    public static final String PREFIX = "cl.bci.evaluacion.";
+}
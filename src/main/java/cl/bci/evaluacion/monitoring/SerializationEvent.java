@@ -0,0 +1,11 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "Serialization")
+@Label("Serialización de la respuesta")
+public class SerializationEvent extends RegistrationStageEvent {
+    @Label("Tipo")
+    public String type;
+}
@@ -0,0 +1,98 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual, por tipo y tabla.
+ * Con batching JDBC un batch de inserts se prepara una sola vez, por lo que cuenta como una sentencia.
+ * Lo usan el filtro de métricas por endpoint y los tests de regresión de cantidad de consultas.
+ * No incluye las sentencias ejecutadas directamente con JdbcTemplate (group commit, outbox, exportación).
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    /**
+     * Sentencias contadas en un hilo.
+     */
+    public static final class Counts {
+        private final Map<String, Integer> byStatement = new TreeMap<>();
+
+        void record(String type, String table) {
+            byStatement.merge(type + " " + table, 1, Integer::sum);
+        }
+
+        /**
+         * @param type select, insert, update o delete
+         * @return Sentencias de ese tipo sobre cualquier tabla
+         */
+        public int count(String type) {
+            return byStatement.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(type + " "))
+                    .mapToInt(Map.Entry::getValue)
+                    .sum();
+        }
+
+        /**
+         * @param type  select, insert, update o delete
+         * @param table Tabla (primera tabla de la sentencia)
+         * @return Sentencias de ese tipo sobre la tabla
+         */
+        public int count(String type, String table) {
+            return byStatement.getOrDefault(type + " " + table, 0);
+        }
+
+        public int total() {
+            return byStatement.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            return byStatement.toString();
+        }
+    }
+
+    /**
+     * Reinicia el conteo del hilo actual.
+     */
+    public static void reset() {
+        COUNTS.remove();
+    }
+
+    /**
+     * @return Sentencias contadas en el hilo actual desde el último reset
+     */
+    public static Counts current() {
+        return COUNTS.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+        int space = normalized.indexOf(' ');
+        String type = space > 0 ? normalized.substring(0, space) : normalized;
+        COUNTS.get().record(type, table(type, normalized));
+        return sql;
+    }
+
+    private static String table(String type, String sql) {
+        String marker = switch (type) {
+            case "insert" -> " into ";
+            case "update" -> "update ";
+            default -> " from ";
+        };
+        int start = sql.indexOf(marker);
+        if (start < 0) {
+            return "?";
+        }
+        start += marker.length();
+        int end = start;
+        while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_')) {
+            end++;
+        }
+        return sql.substring(start, end);
+    }
+}
@@ -0,0 +1,62 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra las sentencias SQL de Hibernate por solicitud en la métrica http.server.requests.sql,
+ * con tags method, uri (patrón del endpoint) y type (select, insert, update, delete).
+ * Consultar en /actuator/metrics/http.server.requests.sql?tag=uri:/api/users&tag=type:select
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+    private static final String[] TYPES = {"select", "insert", "update", "delete"};
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry,
+                                     @Value("${sql.metrics.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+                for (String type : TYPES) {
+                    DistributionSummary.builder("http.server.requests.sql")
+                            .description("Sentencias SQL por solicitud")
+                            .tag("method", request.getMethod())
+                            .tag("uri", pattern.toString())
+                            .tag("type", type)
+                            .register(meterRegistry)
+                            .record(counts.count(type));
+                }
+            }
+            SqlStatementCounter.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cl.bci.evaluacion.monitoring;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Conversor JSON que emite un {@link SerializationEvent} por respuesta escrita.
+ * Reemplaza al conversor Jackson por defecto (mismo ObjectMapper de Spring Boot).
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        super.writeInternal(object, type, outputMessage);
+        if (event.shouldCommit()) {
+            event.type = object.getClass().getSimpleName();
+        }
+        event.commit();
+    }
+}
@@ -0,0 +1,11 @@
+package cl.bci.evaluacion.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RegistrationStageEvent.PREFIX + "Validation")
+@Label("Validación de la solicitud")
+public class ValidationEvent extends RegistrationStageEvent {
+    @Label("Restricción")
+    public String constraint;
+}
@@ -0,0 +1,129 @@
+package cl.bci.evaluacion.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publica en segundo plano los eventos del outbox.
+ * Cada lote se reclama con SELECT ... FOR UPDATE SKIP LOCKED, de modo que varias instancias
+ * pueden despachar en paralelo sin procesar la misma fila, y se elimina en bloque al publicarse.
+ * Sin un sink configurado (outbox.sink) no se despacha: los eventos quedan en el outbox hasta que se configure uno.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final String CLAIM_SQL = "SELECT id, aggregate_id, event_type, payload, created FROM outbox_events "
+            + "ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id IN (:ids)";
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getObject("aggregate_id", UUID.class),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getObject("created", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final OutboxSink sink;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private final Counter dispatched;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter,
+                            Optional<OutboxSink> sink,
+                            MeterRegistry meterRegistry,
+                            @Value("${outbox.enabled:true}") boolean enabled,
+                            @Value("${outbox.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.sink = sink.orElse(null);
+        this.enabled = enabled && this.sink != null;
+        if (enabled && this.sink == null) {
+            log.warn("Outbox sin sink configurado (outbox.sink): los eventos quedan en outbox_events sin despacharse");
+        }
+        this.batchSize = batchSize;
+        this.lag = Timer.builder("outbox.dispatch.lag")
+                .description("Tiempo entre la escritura del evento y su publicación")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.dispatch.batch.size")
+                .description("Eventos publicados por lote")
+                .register(meterRegistry);
+        this.dispatched = Counter.builder("outbox.dispatched")
+                .description("Eventos publicados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Despacha lotes completos mientras existan eventos pendientes en cada shard.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            int published;
+            do {
+                published = shardRouter.onShard(shard, this::dispatchBatch);
+            } while (published == batchSize);
+        }
+    }
+
+    /**
+     * Reclama, publica y elimina un lote en una única transacción.
+     *
+     * @return Cantidad de eventos publicados
+     */
+    int dispatchBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxMessage> batch = jdbcTemplate.query(CLAIM_SQL, MESSAGE_MAPPER, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                // El rollback libera las filas para el siguiente ciclo
+                log.warn("No se pudo publicar el lote del outbox, se reintentará", e);
+                status.setRollbackOnly();
+                return 0;
+            }
+            namedJdbcTemplate.update(DELETE_SQL, Map.of("ids", batch.stream().map(OutboxMessage::id).toList()));
+
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(message -> lag.record(Duration.between(message.created(), now)));
+            batchSizes.record(batch.size());
+            dispatched.increment(batch.size());
+            return batch.size();
+        });
+        return published == null ? 0 : published;
+    }
+}
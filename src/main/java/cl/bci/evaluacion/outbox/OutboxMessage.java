@@ -0,0 +1,10 @@
+package cl.bci.evaluacion.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento reclamado desde la tabla outbox_events para su publicación.
+ */
+public record OutboxMessage(long id, UUID aggregateId, String eventType, String payload, LocalDateTime created) {
+}
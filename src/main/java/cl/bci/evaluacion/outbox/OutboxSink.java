@@ -0,0 +1,11 @@
+package cl.bci.evaluacion.outbox;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox (CRM, fraude, etc.).
+ * Si publish lanza una excepción el lote no se elimina y se reintenta en el siguiente ciclo.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,56 @@
+package cl.bci.evaluacion.outbox;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.model.entity.OutboxEvent;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.repository.OutboxEventRepository;
+import lombok.AllArgsConstructor;
+
+/**
+ * Escribe eventos en la tabla outbox_events dentro de la transacción en curso.
+ */
+@Component
+@AllArgsConstructor
+public class OutboxWriter {
+    public static final String USER_REGISTERED = "UserRegistered";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registra el evento UserRegistered. Debe llamarse en la misma transacción que el insert del usuario.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userRegistered(User user) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(user.getId())
+                .eventType(USER_REGISTERED)
+                .payload(userRegisteredPayload(user))
+                .build());
+    }
+
+    /**
+     * Payload JSON del evento UserRegistered.
+     */
+    public String userRegisteredPayload(User user) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", user.getId());
+        payload.put("name", user.getName());
+        payload.put("email", user.getEmail());
+        payload.put("created", user.getCreated());
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + USER_REGISTERED, e);
+        }
+    }
+}
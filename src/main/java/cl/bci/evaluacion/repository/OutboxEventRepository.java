@@ -0,0 +1,9 @@
+package cl.bci.evaluacion.repository;
+
+import cl.bci.evaluacion.model.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -0,0 +1,19 @@
+package cl.bci.evaluacion.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lecturas parciales de usuarios: solo las columnas pedidas, sin cargar la entidad ni sus teléfonos.
+ */
+public interface UserProjectionRepository {
+
+    /**
+     * @param id         Identificador del usuario
+     * @param attributes Atributos de {@link cl.bci.evaluacion.model.entity.User} a leer
+     * @return Valor de cada atributo pedido, o vacío si el usuario no existe
+     */
+    Optional<Map<String, Object>> findAttributesById(UUID id, Collection<String> attributes);
+}
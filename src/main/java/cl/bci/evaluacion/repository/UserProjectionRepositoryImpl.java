@@ -0,0 +1,50 @@
+package cl.bci.evaluacion.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import cl.bci.evaluacion.model.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Proyección dinámica con Criteria: un select de las columnas pedidas, sin entidades administradas.
+ */
+class UserProjectionRepositoryImpl implements UserProjectionRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * readOnly: puede leerse desde la réplica.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findAttributesById(UUID id, Collection<String> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        List<Selection<?>> selections = attributes.stream()
+                .<Selection<?>>map(attribute -> user.get(attribute).alias(attribute))
+                .toList();
+        query.multiselect(selections).where(cb.equal(user.get("id"), id));
+
+        return entityManager.createQuery(query).getResultStream().findFirst().map(tuple -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                values.put(attribute, tuple.get(attribute));
+            }
+            return values;
+        });
+    }
+}
@@ -1,14 +1,43 @@
 package cl.bci.evaluacion.repository;
 
 import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.util.EmailNormalizer;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
-    boolean existsByEmail(String email);
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, UUID>, UserProjectionRepository {
+    boolean existsByEmailHashAndEmail(long emailHash, String email);
+    Optional<User> findByEmailHashAndEmail(long emailHash, String email);
+
+    /**
+     * Busca por el índice de email_hash y luego compara el correo normalizado completo.
+     */
+    default boolean existsByEmail(String email) {
+        String normalized = EmailNormalizer.normalize(email);
+        return existsByEmailHashAndEmail(EmailNormalizer.hash(normalized), normalized);
+    }
+
+    default Optional<User> findByEmail(String email) {
+        String normalized = EmailNormalizer.normalize(email);
+        return findByEmailHashAndEmail(EmailNormalizer.hash(normalized), normalized);
+    }
+
+    /**
+     * Usuario con sus teléfonos en una sola consulta. Al ser readOnly puede leerse desde la réplica.
+     */
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findWithPhonesById(UUID id);
+
+    /**
+     * Usuario sin join con phones, para el modo de teléfonos empaquetados.
+     */
+    @Transactional(readOnly = true)
+    Optional<User> findWithoutPhonesById(UUID id);
 }
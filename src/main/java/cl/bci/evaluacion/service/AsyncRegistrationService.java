@@ -0,0 +1,229 @@
+package cl.bci.evaluacion.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.exception.RegistrationNotFoundException;
+import cl.bci.evaluacion.exception.RegistrationQueueFullException;
+import cl.bci.evaluacion.model.dto.RegistrationStatusDTO;
+import cl.bci.evaluacion.model.dto.RegistrationStatusDTO.Status;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registro asíncrono: las solicitudes ya validadas se encolan y un pool de workers ejecuta
+ * {@link UserService#registerUser} en segundo plano. El estado se consulta por el id de la solicitud.
+ * Con journal, las solicitudes que no caben en la cola se derivan a él y, mientras tenga entradas sin
+ * entregar, también las siguientes, de modo que se procesan en orden de llegada: los workers vacían
+ * primero la cola (las más antiguas) y luego el journal. Los estados se guardan solo en memoria:
+ * las entradas reprocesadas tras un reinicio no tienen estado consultable.
+ * Al detenerse deja de aceptar solicitudes (503) y los workers vacían la cola antes de terminar; lo que queda
+ * al vencer el plazo se deriva al journal o, sin journal, queda REJECTED.
+ */
+@Slf4j
+@Service
+public class AsyncRegistrationService {
+    private final UserService userService;
+    private final boolean enabled;
+    private final long statusTtlMs;
+    private final BlockingQueue<RegistrationJournal.Entry> queue;
+    private final RegistrationJournal journal;
+    private final ExecutorService workers;
+    private final Map<UUID, TrackedStatus> statuses = new ConcurrentHashMap<>();
+    private final long shutdownTimeoutMs;
+    private volatile boolean running = true;
+
+    private record TrackedStatus(RegistrationStatusDTO status, long updatedAt) {
+    }
+
+    public AsyncRegistrationService(UserService userService,
+                                    ObjectMapper objectMapper,
+                                    @Value("${registration.async.enabled:false}") boolean enabled,
+                                    @Value("${registration.async.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${registration.async.workers:0}") int workerCount,
+                                    @Value("${registration.async.status-ttl-ms:600000}") long statusTtlMs,
+                                    @Value("${registration.async.journal.enabled:false}") boolean journalEnabled,
+                                    @Value("${registration.async.journal.path:./data/registration-journal.ndjson}") Path journalPath,
+                                    @Value("${registration.async.shutdown-timeout-ms:30000}") long shutdownTimeoutMs)
+            throws IOException {
+        this.userService = userService;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.enabled = enabled;
+        this.statusTtlMs = statusTtlMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.journal = enabled && journalEnabled ? new RegistrationJournal(journalPath, objectMapper) : null;
+
+        int threads = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "registro-async-" + counter.incrementAndGet()));
+        if (enabled) {
+            for (int i = 0; i < threads; i++) {
+                workers.execute(this::work);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encola una solicitud ya validada. Si la cola está llena se deriva al journal o se rechaza.
+     *
+     * @throws RegistrationQueueFullException si la cola está llena sin journal o el servicio se está deteniendo
+     */
+    public RegistrationStatusDTO submit(UserRequestDTO request) {
+        if (!running) {
+            throw new RegistrationQueueFullException("Servicio deteniéndose, reintente más tarde");
+        }
+        UUID id = UUID.randomUUID();
+        RegistrationStatusDTO pending = RegistrationStatusDTO.builder()
+                .id(id)
+                .status(Status.PENDING)
+                .build();
+        statuses.put(id, new TrackedStatus(pending, System.currentTimeMillis()));
+
+        RegistrationJournal.Entry entry = new RegistrationJournal.Entry(id, request);
+        if (journal != null && journal.appendIfPending(entry)) {
+            return pending;
+        }
+        if (!queue.offer(entry)) {
+            if (journal == null) {
+                statuses.remove(id);
+                throw new RegistrationQueueFullException("Cola de registro llena, reintente más tarde");
+            }
+            journal.append(entry);
+        }
+        return pending;
+    }
+
+    public RegistrationStatusDTO status(UUID id) {
+        TrackedStatus tracked = statuses.get(id);
+        if (tracked == null) {
+            throw new RegistrationNotFoundException("Registro no encontrado");
+        }
+        return tracked.status();
+    }
+
+    private void work() {
+        // Al detenerse se sigue hasta vaciar la cola; el journal queda para el próximo inicio
+        while (running || !queue.isEmpty()) {
+            try {
+                // La cola tiene las solicitudes más antiguas; el journal se lee apenas la cola se vacía
+                RegistrationJournal.Entry entry = queue.poll();
+                if (entry != null) {
+                    process(entry);
+                    continue;
+                }
+                if (!running) {
+                    return;
+                }
+                RegistrationJournal.Pending pending = journal != null ? journal.poll().orElse(null) : null;
+                if (pending != null) {
+                    // Se confirma después de procesar: una caída antes del ack la reprocesa al reiniciar
+                    process(pending.entry());
+                    journal.ack(pending);
+                    continue;
+                }
+                entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    process(entry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error en worker de registro asíncrono", e);
+            }
+        }
+    }
+
+    private void process(RegistrationJournal.Entry entry) {
+        RegistrationStatusDTO result;
+        try {
+            UserResponseDTO user = userService.registerUser(entry.request());
+            result = RegistrationStatusDTO.builder()
+                    .id(entry.id())
+                    .status(Status.CREATED)
+                    .user(user)
+                    .build();
+        } catch (DuplicateEmailException e) {
+            result = rejected(entry.id(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error interno en registro asíncrono {}", entry.id(), e);
+            result = rejected(entry.id(), "Error interno del servidor");
+        }
+        statuses.put(entry.id(), new TrackedStatus(result, System.currentTimeMillis()));
+    }
+
+    private static RegistrationStatusDTO rejected(UUID id, String mensaje) {
+        return RegistrationStatusDTO.builder()
+                .id(id)
+                .status(Status.REJECTED)
+                .mensaje(mensaje)
+                .build();
+    }
+
+    /**
+     * Elimina los estados finalizados más antiguos que el TTL configurado.
+     */
+    @Scheduled(fixedDelayString = "${registration.async.cleanup-interval-ms:60000}")
+    public void evictExpiredStatuses() {
+        long cutoff = System.currentTimeMillis() - statusTtlMs;
+        statuses.values().removeIf(tracked -> tracked.status().getStatus() != Status.PENDING
+                && tracked.updatedAt() < cutoff);
+    }
+
+    /**
+     * Deja de aceptar solicitudes y espera hasta registration.async.shutdown-timeout-ms a que los workers vacíen
+     * la cola. Las que no alcanzan a procesarse se derivan al journal (se procesan al reiniciar) o, sin journal,
+     * quedan REJECTED en vez de PENDING hasta expirar.
+     */
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+            workers.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        List<RegistrationJournal.Entry> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("{} registros asíncronos sin procesar al detenerse ({})", leftover.size(),
+                    journal != null ? "derivados al journal" : "quedan REJECTED");
+        }
+        for (RegistrationJournal.Entry entry : leftover) {
+            if (journal != null) {
+                journal.append(entry);
+            } else {
+                statuses.put(entry.id(), new TrackedStatus(
+                        rejected(entry.id(), "Registro no procesado: el servicio se detuvo"), System.currentTimeMillis()));
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
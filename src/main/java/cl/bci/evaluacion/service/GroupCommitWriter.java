@@ -0,0 +1,241 @@
+package cl.bci.evaluacion.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.outbox.OutboxWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit de registros: los usuarios ya preparados (password cifrada y token generado) se
+ * acumulan durante una ventana de tiempo o hasta un máximo de elementos, y se insertan como un
+ * batch JDBC en una sola transacción. Hay un escritor por shard.
+ * Si el batch viola una restricción se divide en mitades hasta aislar la solicitud culpable, de modo que
+ * sólo ésta recibe el error: {@link DuplicateEmailException} si es la unicidad del correo, o el error original.
+ * Al detenerse, las solicitudes en curso y las encoladas fallan con IllegalStateException; la espera de cada
+ * solicitud está acotada por registration.group-commit.timeout-ms.
+ */
+@Slf4j
+@Component
+public class GroupCommitWriter {
+    private static final String INSERT_USER = "INSERT INTO users "
+            + "(id, name, email, email_hash, password, created, modified, last_login, token, token_expires, is_active, "
+            + "phones_packed) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PHONE = "INSERT INTO phones "
+            + "(id, number, citycode_id, citycode, countrycode_id, countrycode, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTBOX = "INSERT INTO outbox_events (aggregate_id, event_type, payload, created) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final OutboxWriter outboxWriter;
+    private final PhoneCodeDictionary phoneCodes;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxItems;
+    private final long timeoutMs;
+    private final List<BlockingQueue<PendingWrite>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private record PendingWrite(User user, CompletableFuture<User> result) {
+    }
+
+    public GroupCommitWriter(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ShardRouter shardRouter,
+                             OutboxWriter outboxWriter,
+                             PhoneCodeDictionary phoneCodes,
+                             @Value("${registration.group-commit.enabled:false}") boolean enabled,
+                             @Value("${registration.group-commit.window-ms:2}") long windowMs,
+                             @Value("${registration.group-commit.max-items:64}") int maxItems,
+                             @Value("${registration.group-commit.timeout-ms:30000}") long timeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.outboxWriter = outboxWriter;
+        this.phoneCodes = phoneCodes;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxItems = maxItems;
+        this.timeoutMs = timeoutMs;
+        if (enabled) {
+            for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+                BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+                int writerShard = shard;
+                Thread writer = Thread.ofPlatform()
+                        .name("group-commit-" + shard)
+                        .daemon()
+                        .start(() -> run(writerShard, queue));
+                queues.add(queue);
+                writers.add(writer);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encola un usuario preparado y espera a que su batch se confirme.
+     *
+     * @return Usuario persistido (con id y timestamps asignados)
+     * @throws DuplicateEmailException si el correo viola la restricción única
+     * @throws IllegalStateException si el writer está detenido o no responde dentro del plazo
+     */
+    public User write(User user) {
+        if (!running) {
+            throw new IllegalStateException("Group commit detenido");
+        }
+        PendingWrite pending = new PendingWrite(user, new CompletableFuture<>());
+        queues.get(shardRouter.shardOf(user.getEmail())).add(pending);
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // También cubre una solicitud encolada justo después de detenerse el writer
+            throw new IllegalStateException("Group commit sin respuesta en " + timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera de group commit interrumpida", e);
+        }
+    }
+
+    private void run(int shard, BlockingQueue<PendingWrite> queue) {
+        List<PendingWrite> batch = new ArrayList<>(maxItems);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxItems) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                shardRouter.onShard(shard, () -> {
+                    commit(batch);
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                // Interrumpido al detenerse, posiblemente con un batch a medio juntar
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new IllegalStateException("Group commit detenido")));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Error en group commit", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        queue.forEach(pending -> pending.result().completeExceptionally(
+                new IllegalStateException("Group commit detenido")));
+    }
+
+    /**
+     * Indica si la violación corresponde a la restricción única del correo (y no a NOT NULL, largo, FK, etc.).
+     */
+    static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        String constraint = User.EMAIL_HASH_CONSTRAINT.toUpperCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().toUpperCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserta el batch en una transacción. Ante una violación de integridad lo divide en mitades.
+     */
+    private void commit(List<PendingWrite> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            batch.forEach(pending -> pending.result().complete(pending.user()));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(isDuplicateEmail(e)
+                        ? new DuplicateEmailException("El correo ya registrado")
+                        : e);
+                return;
+            }
+            int middle = batch.size() / 2;
+            commit(batch.subList(0, middle));
+            commit(batch.subList(middle, batch.size()));
+        }
+    }
+
+    private void insert(List<PendingWrite> batch) {
+        // Misma precisión que las entidades: la respuesta coincide con lo que se leerá después
+        LocalDateTime now = User.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> users = new ArrayList<>(batch.size());
+        List<Object[]> phones = new ArrayList<>();
+        List<Object[]> events = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            User user = pending.user();
+            if (user.getId() == null) {
+                user.setId(UUID.randomUUID());
+            }
+            user.normalizeEmail();
+            user.setCreated(now);
+            user.setModified(now);
+            user.setLastLogin(now);
+            user.setActive(true);
+            users.add(new Object[] {user.getId(), user.getName(), user.getEmail(), user.getEmailHash(), user.getPassword(),
+                    timestamp, timestamp, timestamp, user.getToken(),
+                    user.getTokenExpires() == null ? null : Timestamp.valueOf(user.getTokenExpires()), true,
+                    user.getPhonesPacked()});
+            for (Phone phone : user.getPhones()) {
+                if (phone.getId() == null) {
+                    phone.setId(UUID.randomUUID());
+                }
+                phones.add(new Object[] {phone.getId(), phone.getNumber(),
+                        phoneCodes.cities().idOf(phone.getCitycode()), phoneCodes.cities().textOf(phone.getCitycode()),
+                        phoneCodes.countries().idOf(phone.getCountrycode()), phoneCodes.countries().textOf(phone.getCountrycode()),
+                        user.getId()});
+            }
+            events.add(new Object[] {user.getId(), OutboxWriter.USER_REGISTERED,
+                    outboxWriter.userRegisteredPayload(user), timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users);
+        jdbcTemplate.batchUpdate(INSERT_PHONE, phones);
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, events);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,99 @@
+package cl.bci.evaluacion.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+
+/**
+ * Registro de solicitudes de registro en curso por correo normalizado (single-flight).
+ * Solo la primera solicitud de un correo ejecuta el registro (chequeo, BCrypt y save); las concurrentes
+ * esperan su resultado y reciben el error de correo duplicado sin cifrar la contraseña, o lo reciben de
+ * inmediato con registration.single-flight.wait=false. Las entradas se eliminan al terminar.
+ */
+@Component
+public class InFlightRegistrations {
+    private static final int STRIPES = 64;
+
+    // Mapas independientes por franja: putIfAbsent/remove sin bloqueo global ni redimensionamiento compartido
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, CompletableFuture<Void>>[] stripes = new ConcurrentHashMap[STRIPES];
+    private final boolean enabled;
+    private final boolean wait;
+
+    public InFlightRegistrations(@Value("${registration.single-flight.enabled:true}") boolean enabled,
+                                 @Value("${registration.single-flight.wait:true}") boolean wait) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.enabled = enabled;
+        this.wait = wait;
+    }
+
+    /**
+     * Ejecuta el registro si no hay otro en curso para el mismo correo.
+     *
+     * @param email        Correo normalizado
+     * @param registration Registro completo (chequeo, cifrado y persistencia)
+     * @return Resultado del registro
+     * @throws DuplicateEmailException si otra solicitud registró (o está registrando) el mismo correo
+     */
+    public <T> T register(String email, Supplier<T> registration) {
+        if (!enabled) {
+            return registration.get();
+        }
+        ConcurrentHashMap<String, CompletableFuture<Void>> stripe = stripes[Math.floorMod(email.hashCode(), STRIPES)];
+        while (true) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> inFlight = stripe.putIfAbsent(email, mine);
+            if (inFlight == null) {
+                return runAsLeader(stripe, email, mine, registration);
+            }
+            if (!wait) {
+                throw new DuplicateEmailException("El correo ya registrado");
+            }
+            try {
+                inFlight.join();
+                // El primero registró el correo
+                throw new DuplicateEmailException("El correo ya registrado");
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof DuplicateEmailException duplicate) {
+                    throw duplicate;
+                }
+                // El primero falló por otro motivo: se reintenta (esta solicitud puede quedar como primera)
+            }
+        }
+    }
+
+    private <T> T runAsLeader(ConcurrentHashMap<String, CompletableFuture<Void>> stripe, String email,
+                              CompletableFuture<Void> mine, Supplier<T> registration) {
+        T result;
+        try {
+            result = registration.get();
+        } catch (RuntimeException | Error e) {
+            // Se elimina antes de completar: quien llegue después hace su propio chequeo
+            stripe.remove(email, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        stripe.remove(email, mine);
+        mine.complete(null);
+        return result;
+    }
+
+    /**
+     * Cantidad de registros en curso (para tests y métricas).
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, CompletableFuture<Void>> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+}
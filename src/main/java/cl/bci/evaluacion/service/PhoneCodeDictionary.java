@@ -0,0 +1,304 @@
+package cl.bci.evaluacion.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diccionario de los códigos de país y de ciudad de los teléfonos. Los códigos conocidos están en
+ * phone_country_codes y phone_city_codes, y la tabla phones guarda su id entero (countrycode_id, citycode_id);
+ * los demás se guardan como texto (countrycode, citycode). Los códigos conocidos son los de phones.codes.countries
+ * y phones.codes.cities, que se agregan a las tablas al iniciar, más los que ya estén en ellas: las solicitudes
+ * no agregan códigos, por lo que el diccionario no crece con datos externos. Cada código conocido tiene una
+ * única instancia de String, compartida por todas las entidades y DTO que lo usan.
+ * La lectura no toma locks (mapas inmutables reemplazados al recargar); los códigos configurados que faltan se
+ * insertan en todos los shards con una conexión propia en autocommit; si falla en un shard se eliminan las filas
+ * ya insertadas en los otros. Los ids no se reutilizan.
+ */
+@Slf4j
+@Component
+public class PhoneCodeDictionary implements SmartInitializingSingleton {
+    private final Codes countries;
+    private final Codes cities;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final List<String> knownCountries;
+    private final List<String> knownCities;
+
+    public PhoneCodeDictionary(DataSource dataSource,
+                               ShardRouter shardRouter,
+                               @Value("${phones.codes.countries:}") List<String> knownCountries,
+                               @Value("${phones.codes.cities:}") List<String> knownCities) {
+        this.countries = new Codes("phone_country_codes", dataSource, shardRouter);
+        this.cities = new Codes("phone_city_codes", dataSource, shardRouter);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.shardRouter = shardRouter;
+        this.knownCountries = knownCountries;
+        this.knownCities = knownCities;
+    }
+
+    /**
+     * Carga las tablas después de crear el esquema (Hibernate o schema.sql), agrega los códigos configurados
+     * que faltan y pasa a id los teléfonos guardados con texto cuyo código ahora es conocido.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        countries.seed(knownCountries);
+        cities.seed(knownCities);
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                encodeStored("countrycode", countries);
+                encodeStored("citycode", cities);
+                return null;
+            });
+        }
+    }
+
+    public Codes countries() {
+        return countries;
+    }
+
+    public Codes cities() {
+        return cities;
+    }
+
+    private void encodeStored(String column, Codes codes) {
+        int encoded = jdbcTemplate.update("UPDATE phones SET " + column + "_id = (SELECT c.id FROM " + codes.table
+                + " c WHERE c.code = phones." + column + "), " + column + " = NULL WHERE " + column
+                + " IN (SELECT code FROM " + codes.table + ")");
+        if (encoded > 0) {
+            log.info("Teléfonos con {} pasado a id del diccionario: {}", column, encoded);
+        }
+    }
+
+    /**
+     * Códigos de una tabla del diccionario.
+     */
+    public static final class Codes {
+        private final String table;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final ShardRouter shardRouter;
+        private volatile Map<String, Integer> ids;
+        private volatile String[] codes;
+
+        private Codes(String table, DataSource dataSource, ShardRouter shardRouter) {
+            this.table = table;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.shardRouter = shardRouter;
+        }
+
+        /**
+         * @return Id del código, o null si no está en el diccionario (se guarda como texto)
+         */
+        public Integer idOf(String code) {
+            return code == null ? null : loaded().get(code);
+        }
+
+        /**
+         * @return El código si se guarda como texto; null si está en el diccionario (se guarda su id)
+         */
+        public String textOf(String code) {
+            return code == null || loaded().containsKey(code) ? null : code;
+        }
+
+        /**
+         * Código de una fila de phones: el del id si lo tiene; si no, el texto.
+         */
+        public String codeOf(Integer id, String text) {
+            return id == null ? text : codeOf(id);
+        }
+
+        /**
+         * Instancia canónica del código si está en el diccionario; si no, el mismo código.
+         */
+        public String canonical(String code) {
+            Integer id = idOf(code);
+            return id != null ? codes[id] : code;
+        }
+
+        /**
+         * Código de un id. Si no está en memoria (agregado por otro proceso) se recarga la tabla.
+         */
+        public String codeOf(int id) {
+            String[] current = codes;
+            if (current == null || id >= current.length || current[id] == null) {
+                load();
+                current = codes;
+            }
+            if (id >= current.length || current[id] == null) {
+                throw new IllegalStateException("Código inexistente en " + table + ": " + id);
+            }
+            return current[id];
+        }
+
+        /**
+         * @return Códigos en el diccionario
+         */
+        public int size() {
+            return loaded().size();
+        }
+
+        private Map<String, Integer> loaded() {
+            Map<String, Integer> current = ids;
+            if (current == null) {
+                load();
+                current = ids;
+            }
+            return current;
+        }
+
+        /**
+         * Carga la tabla y agrega los códigos conocidos que faltan.
+         */
+        synchronized void seed(List<String> known) {
+            load();
+            for (String code : known) {
+                if (!ids.containsKey(code)) {
+                    add(code);
+                }
+            }
+        }
+
+        /**
+         * Lee la tabla de todos los shards. Solo agrega códigos: una lectura parcial (por ejemplo en la réplica)
+         * no quita los conocidos.
+         */
+        synchronized void load() {
+            Map<String, Integer> loadedIds = ids != null ? new HashMap<>(ids) : new HashMap<>();
+            for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+                shardRouter.onShard(shard, () -> {
+                    jdbcTemplate.query("SELECT id, code FROM " + table, rs -> {
+                        loadedIds.put(rs.getString("code"), rs.getInt("id"));
+                    });
+                    return null;
+                });
+            }
+            int max = loadedIds.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+            String[] loadedCodes = new String[max + 1];
+            loadedIds.forEach((code, id) -> loadedCodes[id] = code);
+            codes = loadedCodes;
+            ids = Map.copyOf(loadedIds);
+        }
+
+        private synchronized void add(String code) {
+            if (loaded().containsKey(code)) {
+                return;
+            }
+            int id = codes.length;
+            int inserted = 0;
+            try {
+                for (; inserted < shardRouter.getShards(); inserted++) {
+                    shardRouter.onShard(inserted, () -> insert(id, code));
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Otro proceso agregó el código o usó el id: se recarga y se reintenta
+                undo(id, code, inserted, e);
+                load();
+                add(code);
+                return;
+            } catch (RuntimeException e) {
+                undo(id, code, inserted, e);
+                throw e;
+            }
+            Map<String, Integer> updatedIds = new HashMap<>(ids);
+            updatedIds.put(code, id);
+            String[] updatedCodes = Arrays.copyOf(codes, id + 1);
+            updatedCodes[id] = code;
+            codes = updatedCodes;
+            ids = Map.copyOf(updatedIds);
+        }
+
+        /**
+         * Elimina las filas del código insertadas en los primeros shards antes de una falla, para no dejar
+         * códigos que solo existen en algunos. Las fallas al eliminar se agregan a la original.
+         */
+        private void undo(int id, String code, int shards, RuntimeException failure) {
+            for (int shard = 0; shard < shards; shard++) {
+                try {
+                    shardRouter.onShard(shard, () -> delete(id, code));
+                } catch (DataAccessException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        private Void delete(int id, String code) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "DELETE FROM " + table + " WHERE id = ? AND code = ?")) {
+                connection.setAutoCommit(true);
+                statement.setInt(1, id);
+                statement.setString(2, code);
+                statement.executeUpdate();
+                return null;
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("No se pudo eliminar el código de " + table, e);
+            }
+        }
+
+        private Void insert(int id, String code) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "INSERT INTO " + table + " (id, code) VALUES (?, ?)")) {
+                connection.setAutoCommit(true);
+                statement.setInt(1, id);
+                statement.setString(2, code);
+                statement.executeUpdate();
+                return null;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                throw new DataIntegrityViolationException("Código o id ya usado en " + table, e);
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("No se pudo agregar el código a " + table, e);
+            }
+        }
+    }
+
+    /**
+     * Guarda los códigos de un teléfono como id del diccionario o como texto, y los restaura al leerlo.
+     * Hibernate la instancia con el contenedor de beans de Spring.
+     */
+    public static class PhoneCodeListener {
+        private final PhoneCodeDictionary dictionary;
+
+        public PhoneCodeListener(PhoneCodeDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @PrePersist
+        public void encode(Phone phone) {
+            phone.setCountrycodeId(dictionary.countries().idOf(phone.getCountrycode()));
+            phone.setCountrycodeText(dictionary.countries().textOf(phone.getCountrycode()));
+            phone.setCitycodeId(dictionary.cities().idOf(phone.getCitycode()));
+            phone.setCitycodeText(dictionary.cities().textOf(phone.getCitycode()));
+        }
+
+        @PostLoad
+        public void decode(Phone phone) {
+            phone.setCountrycode(dictionary.countries().codeOf(phone.getCountrycodeId(), phone.getCountrycodeText()));
+            phone.setCitycode(dictionary.cities().codeOf(phone.getCitycodeId(), phone.getCitycodeText()));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cl.bci.evaluacion.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.util.PhonePacker;
+
+/**
+ * Modo de almacenamiento de teléfonos (phones.storage):
+ * table guarda una fila por teléfono en la tabla phones; packed los guarda en la columna users.phones_packed.
+ * La lectura acepta ambos formatos, de modo que una base a medio migrar sigue respondiendo.
+ */
+@Component
+public class PhoneStorage {
+    public static final String TABLE = "table";
+    public static final String PACKED = "packed";
+
+    private final boolean packed;
+
+    public PhoneStorage(@Value("${phones.storage:table}") String mode) {
+        if (!TABLE.equals(mode) && !PACKED.equals(mode)) {
+            throw new IllegalArgumentException("phones.storage debe ser table o packed: " + mode);
+        }
+        this.packed = PACKED.equals(mode);
+    }
+
+    public boolean isPacked() {
+        return packed;
+    }
+
+    /**
+     * En modo packed mueve los teléfonos del usuario a la columna empaquetada antes de persistirlo.
+     */
+    public void prepare(User user) {
+        if (!packed) {
+            return;
+        }
+        user.setPhonesPacked(PhonePacker.pack(user.getPhones()));
+        user.setPhones(new ArrayList<>());
+    }
+
+    /**
+     * Teléfonos del usuario, desde la columna empaquetada si existe o desde la tabla phones.
+     */
+    public List<Phone> phonesOf(User user) {
+        return user.getPhonesPacked() != null ? PhonePacker.unpack(user.getPhonesPacked()) : user.getPhones();
+    }
+
+    /**
+     * Reemplaza los teléfonos de un usuario administrado aplicando solo la diferencia por
+     * (countrycode, citycode, number): se eliminan las filas que ya no están y se insertan las nuevas,
+     * conservando el id de las que no cambian. En filas empaquetadas se reescribe la columna si cambió.
+     *
+     * @param user   Usuario cargado con sus teléfonos en la transacción en curso
+     * @param phones Teléfonos deseados (los repetidos se ignoran)
+     * @return true si hubo cambios
+     */
+    public boolean update(User user, List<Phone> phones) {
+        Map<PhoneKey, Phone> desired = new LinkedHashMap<>();
+        for (Phone phone : phones) {
+            desired.putIfAbsent(PhoneKey.of(phone), phone);
+        }
+
+        if (user.getPhonesPacked() != null) {
+            String packed = PhonePacker.pack(new ArrayList<>(desired.values()));
+            if (packed.equals(user.getPhonesPacked())) {
+                return false;
+            }
+            user.setPhonesPacked(packed);
+            return true;
+        }
+
+        // orphanRemoval elimina las quitadas; cascade inserta las agregadas (batch en el flush)
+        boolean changed = user.getPhones().removeIf(phone -> !desired.containsKey(PhoneKey.of(phone)));
+        Set<PhoneKey> stored = new HashSet<>();
+        user.getPhones().forEach(phone -> stored.add(PhoneKey.of(phone)));
+        for (Map.Entry<PhoneKey, Phone> entry : desired.entrySet()) {
+            if (stored.add(entry.getKey())) {
+                Phone phone = entry.getValue();
+                phone.setUser(user);
+                user.getPhones().add(phone);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Identidad de un teléfono para el diff.
+     */
+    private record PhoneKey(String countrycode, String citycode, String number) {
+        static PhoneKey of(Phone phone) {
+            return new PhoneKey(phone.getCountrycode(), phone.getCitycode(), phone.getNumber());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package cl.bci.evaluacion.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.util.PhonePacker;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migra los teléfonos entre la tabla phones y la columna users.phones_packed al iniciar la aplicación
+ * (phones.storage.migrate-to=packed|table). Cada lote se migra en su propia transacción, por lo que
+ * la migración puede interrumpirse y retomarse; mientras tanto la lectura acepta ambos formatos.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "phones.storage.migrate-to")
+public class PhoneStorageMigrator implements ApplicationRunner {
+    private static final String PENDING_TABLE_USERS = "SELECT DISTINCT user_id FROM phones FETCH FIRST ? ROWS ONLY";
+    private static final String SELECT_PHONES = "SELECT user_id, number, citycode_id, citycode, countrycode_id, countrycode "
+            + "FROM phones "
+            + "WHERE user_id IN (:ids) ORDER BY user_id";
+    private static final String PACK_USER = "UPDATE users SET phones_packed = ? WHERE id = ?";
+    private static final String DELETE_PHONES = "DELETE FROM phones WHERE user_id IN (:ids)";
+    private static final String PENDING_PACKED_USERS = "SELECT id, phones_packed FROM users "
+            + "WHERE phones_packed IS NOT NULL FETCH FIRST ? ROWS ONLY";
+    private static final String INSERT_PHONE = "INSERT INTO phones "
+            + "(id, number, citycode_id, citycode, countrycode_id, countrycode, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UNPACK_USER = "UPDATE users SET phones_packed = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final PhoneCodeDictionary phoneCodes;
+    private final String target;
+    private final int batchSize;
+
+    public PhoneStorageMigrator(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ShardRouter shardRouter,
+                                PhoneCodeDictionary phoneCodes,
+                                @Value("${phones.storage.migrate-to}") String target,
+                                @Value("${phones.storage.migrate-batch-size:1000}") int batchSize) {
+        if (!PhoneStorage.TABLE.equals(target) && !PhoneStorage.PACKED.equals(target)) {
+            throw new IllegalArgumentException("phones.storage.migrate-to debe ser table o packed: " + target);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.phoneCodes = phoneCodes;
+        this.target = target;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long users = migrate();
+        log.info("Teléfonos migrados a {}: {} usuarios en {} ms", target, users, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Migra todos los shards al modo destino.
+     *
+     * @return Cantidad de usuarios migrados
+     */
+    public long migrate() {
+        Supplier<Integer> batch = PhoneStorage.PACKED.equals(target) ? this::packBatch : this::unpackBatch;
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            int migrated;
+            do {
+                migrated = shardRouter.onShard(shard, batch);
+                total += migrated;
+            } while (migrated == batchSize);
+        }
+        return total;
+    }
+
+    /**
+     * Empaqueta los teléfonos de un lote de usuarios y elimina sus filas de phones.
+     */
+    int packBatch() {
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<UUID> ids = jdbcTemplate.queryForList(PENDING_TABLE_USERS, UUID.class, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Map<UUID, List<Phone>> phonesByUser = new LinkedHashMap<>();
+            namedJdbcTemplate.query(SELECT_PHONES, Map.of("ids", ids), rs -> {
+                phonesByUser.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new ArrayList<>())
+                        .add(Phone.builder()
+                                .number(rs.getString("number"))
+                                .citycode(phoneCodes.cities().codeOf(
+                                        rs.getObject("citycode_id", Integer.class), rs.getString("citycode")))
+                                .countrycode(phoneCodes.countries().codeOf(
+                                        rs.getObject("countrycode_id", Integer.class), rs.getString("countrycode")))
+                                .build());
+            });
+            List<Object[]> updates = new ArrayList<>(phonesByUser.size());
+            phonesByUser.forEach((id, phones) -> updates.add(new Object[] {PhonePacker.pack(phones), id}));
+            jdbcTemplate.batchUpdate(PACK_USER, updates);
+            namedJdbcTemplate.update(DELETE_PHONES, Map.of("ids", ids));
+            return ids.size();
+        });
+        return migrated == null ? 0 : migrated;
+    }
+
+    /**
+     * Inserta en phones los teléfonos empaquetados de un lote de usuarios y vacía la columna.
+     */
+    int unpackBatch() {
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(PENDING_PACKED_USERS, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<Object[]> phones = new ArrayList<>();
+            List<Object[]> users = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                UUID userId = (UUID) row.get("id");
+                for (Phone phone : PhonePacker.unpack((String) row.get("phones_packed"))) {
+                    phones.add(new Object[] {UUID.randomUUID(), phone.getNumber(),
+                            phoneCodes.cities().idOf(phone.getCitycode()), phoneCodes.cities().textOf(phone.getCitycode()),
+                            phoneCodes.countries().idOf(phone.getCountrycode()),
+                            phoneCodes.countries().textOf(phone.getCountrycode()), userId});
+                }
+                users.add(new Object[] {userId});
+            }
+            jdbcTemplate.batchUpdate(INSERT_PHONE, phones);
+            jdbcTemplate.batchUpdate(UNPACK_USER, users);
+            return rows.size();
+        });
+        return migrated == null ? 0 : migrated;
+    }
+}
@@ -0,0 +1,145 @@
+package cl.bci.evaluacion.service;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+
+/**
+ * Journal local donde se derivan las solicitudes asíncronas cuando la cola en memoria está llena.
+ * Cada entrada es una línea JSON escrita con fsync. {@link #poll()} entrega la siguiente entrada sin
+ * confirmarla; la posición confirmada avanza con {@link #ack} una vez procesada, hasta la primera entrada
+ * entregada que aún no termina, y se persiste en un archivo aparte. Tras una caída se reprocesan las
+ * entradas no confirmadas (al menos una vez: un registro ya creado se rechaza como duplicado).
+ * Las entradas contienen la contraseña sin cifrar hasta ser procesadas.
+ */
+public class RegistrationJournal implements AutoCloseable {
+    private final ObjectMapper objectMapper;
+    private final Path offsetFile;
+    private final RandomAccessFile file;
+    // Posición hasta la que todo está procesado (persistida) y posición de la siguiente entrada a entregar
+    private long committedOffset;
+    private long readOffset;
+    // Entradas entregadas sin confirmar, por posición final; true si ya se procesaron
+    private final TreeMap<Long, Boolean> inFlight = new TreeMap<>();
+
+    public record Entry(UUID id, UserRequestDTO request) {
+    }
+
+    /**
+     * Entrada entregada por {@link #poll()}, a confirmar con {@link #ack}.
+     *
+     * @param end Posición siguiente a la entrada en el journal
+     */
+    public record Pending(Entry entry, long end) {
+    }
+
+    public RegistrationJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.offsetFile = path.resolveSibling(path.getFileName() + ".offset");
+        this.file = new RandomAccessFile(path.toFile(), "rwd");
+        long offset = Files.exists(offsetFile) ? Long.parseLong(Files.readString(offsetFile).trim()) : 0;
+        // Una posición más allá del final no es válida: se reprocesa desde el inicio
+        this.committedOffset = offset <= file.length() ? offset : 0;
+        this.readOffset = committedOffset;
+    }
+
+    public synchronized void append(Entry entry) {
+        try {
+            file.seek(file.length());
+            file.write(objectMapper.writeValueAsBytes(entry));
+            file.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Agrega la entrada solo si hay entradas sin entregar, para que no se adelante a ellas por la cola.
+     *
+     * @return true si la entrada se agregó
+     */
+    public synchronized boolean appendIfPending(Entry entry) {
+        if (isEmpty()) {
+            return false;
+        }
+        append(entry);
+        return true;
+    }
+
+    /**
+     * Retorna la siguiente entrada sin entregar. La posición confirmada no cambia hasta {@link #ack}.
+     */
+    public synchronized Optional<Pending> poll() {
+        try {
+            if (readOffset >= file.length()) {
+                return Optional.empty();
+            }
+            file.seek(readOffset);
+            String line = file.readLine();
+            Entry entry = objectMapper.readValue(line.getBytes(StandardCharsets.ISO_8859_1), Entry.class);
+            readOffset = file.getFilePointer();
+            inFlight.put(readOffset, Boolean.FALSE);
+            return Optional.of(new Pending(entry, readOffset));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Confirma una entrada procesada. La posición persistida avanza sobre las entradas consecutivas ya
+     * confirmadas; cuando no queda nada pendiente el journal se trunca.
+     */
+    public synchronized void ack(Pending pending) {
+        inFlight.replace(pending.end(), Boolean.TRUE);
+        long committed = committedOffset;
+        while (!inFlight.isEmpty() && inFlight.firstEntry().getValue()) {
+            committed = inFlight.pollFirstEntry().getKey();
+        }
+        if (committed == committedOffset) {
+            return;
+        }
+        try {
+            if (inFlight.isEmpty() && committed >= file.length()) {
+                // Primero la posición: si se cae antes de truncar, se reprocesa (duplicados) en vez de perder
+                Files.writeString(offsetFile, "0");
+                file.setLength(0);
+                committedOffset = 0;
+                readOffset = 0;
+            } else {
+                Files.writeString(offsetFile, Long.toString(committed));
+                committedOffset = committed;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return true si no hay entradas sin entregar
+     */
+    public synchronized boolean isEmpty() {
+        try {
+            return readOffset >= file.length();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,106 @@
+package cl.bci.evaluacion.service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.monitoring.EmailCheckEvent;
+import cl.bci.evaluacion.monitoring.JwtSignEvent;
+import cl.bci.evaluacion.monitoring.PasswordHashEvent;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.util.JwtUtil;
+import cl.bci.evaluacion.util.PasswordEncoder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registro en pipeline (registration.pipeline.enabled): la firma del JWT se ejecuta en un hilo virtual
+ * mientras el hilo de la solicitud hace el chequeo de correo duplicado y el cifrado BCrypt.
+ * BCrypt no revisa la interrupción, por lo que no se puede cancelar: el cifrado empieza solo después
+ * de que el chequeo confirma que el correo está libre, y un duplicado no cuesta un cifrado completo.
+ */
+@Component
+public class RegistrationPipeline {
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Token y contraseña cifrada de un registro.
+     */
+    public record Credentials(String token, String encryptedPassword) {
+    }
+
+    public RegistrationPipeline(UserRepository userRepository,
+                                JwtUtil jwtUtil,
+                                PasswordEncoder passwordEncoder,
+                                ShardRouter shardRouter,
+                                @Value("${registration.pipeline.enabled:false}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Chequea el correo y cifra la contraseña mientras se genera el token.
+     *
+     * @param email    Correo normalizado
+     * @param password Contraseña sin cifrar
+     * @return Token y contraseña cifrada, cuando las tareas terminan bien
+     * @throws DuplicateEmailException si el correo ya está registrado (sin cifrar la contraseña)
+     */
+    public Credentials prepare(String email, String password) {
+        Future<String> token = executor.submit(() -> {
+            JwtSignEvent event = new JwtSignEvent();
+            event.begin();
+            String jwt = jwtUtil.generateJWT(email);
+            event.commit();
+            return jwt;
+        });
+        try {
+            // El chequeo corre en el hilo de la solicitud: conserva el contexto de shard y réplica
+            EmailCheckEvent emailCheck = new EmailCheckEvent();
+            emailCheck.begin();
+            boolean exists = shardRouter.onShardOf(email, () -> userRepository.existsByEmail(email));
+            emailCheck.commit();
+            if (exists) {
+                throw new DuplicateEmailException("El correo ya registrado");
+            }
+            PasswordHashEvent passwordHash = new PasswordHashEvent();
+            passwordHash.begin();
+            String encryptedPassword = passwordEncoder.encode(password);
+            passwordHash.commit();
+            return new Credentials(token.get(), encryptedPassword);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Registro interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error al preparar el registro", e.getCause());
+        } finally {
+            // Sin efecto si ya terminó; si el correo existe la firma se descarta
+            token.cancel(true);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+package cl.bci.evaluacion.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Calentamiento del JIT al iniciar (warmup.enabled): deserializa y valida una solicitud, la registra con
+ * {@link UserService#registerUser} (chequeo de correo, BCrypt, JWT, insert de usuario, teléfonos y outbox) y
+ * serializa la respuesta. Cada registro corre dentro de una transacción que se revierte, en el shard del correo:
+ * no quedan usuarios, teléfonos ni eventos, y el índice de búsqueda solo indexa registros confirmados.
+ * Los registros no agregan códigos al diccionario de códigos de teléfono.
+ * Se detiene al llegar a warmup.max-iterations o cuando la latencia media de dos ventanas consecutivas
+ * varía menos de warmup.stability-threshold (tras warmup.min-iterations).
+ * Al ser un ApplicationRunner, Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC solo después de terminar:
+ * la sonda /actuator/health/readiness responde OUT_OF_SERVICE mientras dura el calentamiento.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+public class RegistrationWarmup implements ApplicationRunner {
+    private static final int WINDOW = 20;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int minIterations;
+    private final int maxIterations;
+    private final double stabilityThreshold;
+    private volatile int completedIterations;
+
+    public RegistrationWarmup(ObjectMapper objectMapper,
+                              Validator validator,
+                              UserService userService,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter,
+                              @Value("${warmup.min-iterations:100}") int minIterations,
+                              @Value("${warmup.max-iterations:1000}") int maxIterations,
+                              @Value("${warmup.stability-threshold:0.05}") double stabilityThreshold) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.minIterations = minIterations;
+        this.maxIterations = maxIterations;
+        this.stabilityThreshold = stabilityThreshold;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        double previousWindow = 0;
+        long windowNanos = 0;
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            long iterationStart = System.nanoTime();
+            register(iteration);
+            windowNanos += System.nanoTime() - iterationStart;
+            iteration++;
+            completedIterations = iteration;
+
+            if (iteration % WINDOW == 0) {
+                double window = windowNanos / (double) WINDOW / 1_000_000;
+                windowNanos = 0;
+                boolean stable = previousWindow > 0 && Math.abs(window - previousWindow) / previousWindow < stabilityThreshold;
+                log.debug("Calentamiento: {} iteraciones, media de la ventana {} ms", iteration, String.format("%.2f", window));
+                if (stable && iteration >= minIterations) {
+                    break;
+                }
+                previousWindow = window;
+            }
+        }
+        log.info("Calentamiento terminado: {} iteraciones en {} ms, última media {} ms por registro",
+                iteration, (System.nanoTime() - start) / 1_000_000, String.format("%.2f", previousWindow));
+    }
+
+    /**
+     * Iteraciones ejecutadas.
+     */
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    private void register(int iteration) throws Exception {
+        String email = "warmup" + iteration + "@warmup.invalid";
+        byte[] body = objectMapper.writeValueAsBytes(UserRequestDTO.builder()
+                .name("Calentamiento")
+                .email(email)
+                .password("Calentamiento" + iteration)
+                .phones(List.of(PhoneDTO.builder().number("912345678").citycode("9").countrycode("56").build()))
+                .build());
+        UserRequestDTO request = objectMapper.readValue(body, UserRequestDTO.class);
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Solicitud de calentamiento inválida: " + violations);
+        }
+
+        // Siempre se revierte: el registro se une a esta transacción (ni el usuario ni el evento UserRegistered quedan)
+        UserResponseDTO response = shardRouter.onShardOf(email, () -> transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return userService.registerUser(request);
+        }));
+        objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,224 @@
+package cl.bci.evaluacion.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Barrido periódico de tokens vencidos (token_expires pasado) y de tokens de usuarios inactivos.
+ * Recorre idx_users_token_expires e idx_users_is_active en orden de clave (keyset, sin OFFSET) en bloques
+ * de token.sweeper.chunk-size, cada uno en su propia transacción corta, de modo que nunca retiene bloqueos
+ * largos frente a los registros. Entre bloques se pausa según la latencia observada de POST /api/users:
+ * si supera token.sweeper.latency-threshold-ms la pausa se duplica (hasta token.sweeper.max-pause-ms).
+ */
+@Slf4j
+@Component
+public class TokenSweeper {
+    static final String EXPIRED = "expired";
+    static final String INACTIVE = "inactive";
+
+    // Cota inferior explícita: el rango del índice excluye los NULL (tokens ya limpiados)
+    private static final Timestamp MIN_EXPIRES = Timestamp.valueOf("1970-01-01 00:00:00");
+    private static final String COUNT_EXPIRED = "SELECT COUNT(*) FROM users WHERE token_expires >= ? AND token_expires < ?";
+    private static final String COUNT_INACTIVE = "SELECT COUNT(*) FROM users WHERE is_active = FALSE AND token IS NOT NULL";
+    private static final String NEXT_EXPIRED = "SELECT id, token_expires FROM users "
+            + "WHERE token_expires < ? AND (token_expires > ? OR (token_expires = ? AND id > ?)) "
+            + "ORDER BY token_expires, id FETCH FIRST ? ROWS ONLY";
+    private static final String NEXT_INACTIVE = "SELECT id FROM users "
+            + "WHERE is_active = FALSE AND id > ? AND token IS NOT NULL ORDER BY id FETCH FIRST ? ROWS ONLY";
+    private static final String CLEAR_TOKENS = "UPDATE users SET token = NULL, token_expires = NULL, modified = :now "
+            + "WHERE id IN (:ids)";
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long basePauseMs;
+    private final long maxPauseMs;
+    private final double latencyThresholdMs;
+    private final Counter expired;
+    private final Counter inactive;
+    private final Counter throttled;
+    private final Timer chunks;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong pauseMs = new AtomicLong();
+
+    // Última lectura del timer de POST /api/users, para la latencia media entre bloques
+    private long lastCount;
+    private double lastTotalMs;
+
+    public TokenSweeper(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ShardRouter shardRouter,
+                        MeterRegistry meterRegistry,
+                        @Value("${token.sweeper.enabled:true}") boolean enabled,
+                        @Value("${token.sweeper.chunk-size:500}") int chunkSize,
+                        @Value("${token.sweeper.pause-ms:50}") long basePauseMs,
+                        @Value("${token.sweeper.max-pause-ms:5000}") long maxPauseMs,
+                        @Value("${token.sweeper.latency-threshold-ms:200}") double latencyThresholdMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.basePauseMs = basePauseMs;
+        this.maxPauseMs = maxPauseMs;
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.pauseMs.set(basePauseMs);
+        this.expired = rows(meterRegistry, EXPIRED);
+        this.inactive = rows(meterRegistry, INACTIVE);
+        this.throttled = Counter.builder("token.sweeper.throttled")
+                .description("Pausas extendidas por latencia alta de registro")
+                .register(meterRegistry);
+        this.chunks = Timer.builder("token.sweeper.chunk")
+                .description("Duración de cada bloque (transacción) del barrido")
+                .register(meterRegistry);
+        meterRegistry.gauge("token.sweeper.pending", pending);
+        meterRegistry.gauge("token.sweeper.pause", pauseMs);
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("token.sweeper.rows")
+                .description("Tokens limpiados por el barrido")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${token.sweeper.interval-ms:3600000}",
+            fixedDelayString = "${token.sweeper.interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Barre todos los shards.
+     *
+     * @return Cantidad de tokens limpiados
+     */
+    public long sweep() {
+        long start = System.nanoTime();
+        long cleared = 0;
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            cleared += shardRouter.onShard(shard, this::sweepShard);
+        }
+        pending.set(0);
+        if (cleared > 0) {
+            log.info("Barrido de tokens: {} limpiados en {} ms", cleared, (System.nanoTime() - start) / 1_000_000);
+        }
+        return cleared;
+    }
+
+    private long sweepShard() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        pending.addAndGet(jdbcTemplate.queryForObject(COUNT_EXPIRED, Long.class, MIN_EXPIRES, now)
+                + jdbcTemplate.queryForObject(COUNT_INACTIVE, Long.class));
+        long cleared = 0;
+
+        Timestamp lastExpires = MIN_EXPIRES;
+        UUID lastId = MIN_ID;
+        while (true) {
+            List<Map<String, Object>> chunk = jdbcTemplate.queryForList(NEXT_EXPIRED,
+                    now, lastExpires, lastExpires, lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Map<String, Object> last = chunk.get(chunk.size() - 1);
+            lastExpires = (Timestamp) last.get("token_expires");
+            lastId = (UUID) last.get("id");
+            cleared += clear(chunk.stream().map(row -> (UUID) row.get("id")).toList(), expired);
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            throttle();
+        }
+
+        lastId = MIN_ID;
+        while (true) {
+            List<UUID> ids = jdbcTemplate.queryForList(NEXT_INACTIVE, UUID.class, lastId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            cleared += clear(ids, inactive);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            throttle();
+        }
+        return cleared;
+    }
+
+    /**
+     * Limpia un bloque en una transacción corta.
+     */
+    private int clear(List<UUID> ids, Counter counter) {
+        Integer updated = chunks.record(() -> transactionTemplate.execute(status -> namedJdbcTemplate.update(CLEAR_TOKENS,
+                Map.of("now", Timestamp.valueOf(LocalDateTime.now()), "ids", ids))));
+        int rows = updated == null ? 0 : updated;
+        counter.increment(rows);
+        pending.updateAndGet(value -> Math.max(0, value - rows));
+        return rows;
+    }
+
+    /**
+     * Pausa entre bloques: se duplica mientras la latencia media de registro desde el bloque anterior
+     * supere el umbral y vuelve a la pausa base cuando baja.
+     */
+    private void throttle() {
+        double latency = recentRegistrationLatencyMs();
+        long pause = latency > latencyThresholdMs
+                ? Math.min(maxPauseMs, Math.max(1, pauseMs.get()) * 2)
+                : basePauseMs;
+        if (pause > basePauseMs) {
+            throttled.increment();
+        }
+        pauseMs.set(pause);
+        try {
+            Thread.sleep(pause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Latencia media de POST /api/users desde la lectura anterior (0 si no hubo solicitudes).
+     */
+    double recentRegistrationLatencyMs() {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : meterRegistry.find("http.server.requests").tags("uri", "/api/users", "method", "POST").timers()) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long requests = count - lastCount;
+        double latency = requests > 0 ? (totalMs - lastTotalMs) / requests : 0;
+        lastCount = count;
+        lastTotalMs = totalMs;
+        return latency;
+    }
+}
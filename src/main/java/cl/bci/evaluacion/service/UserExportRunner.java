@@ -0,0 +1,63 @@
+package cl.bci.evaluacion.service;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportación por línea de comandos: con export.file definido escribe todos los usuarios en ese archivo
+ * al iniciar y, si export.exit=true, termina la aplicación con el código de salida correspondiente.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "export.file")
+public class UserExportRunner implements ApplicationRunner {
+    private final UserExportService userExportService;
+    private final ApplicationContext applicationContext;
+    private final Path file;
+    private final UserExportService.Format format;
+    private final boolean gzip;
+    private final boolean exit;
+
+    public UserExportRunner(UserExportService userExportService,
+                            ApplicationContext applicationContext,
+                            @Value("${export.file}") String file,
+                            @Value("${export.format:csv}") String format,
+                            @Value("${export.gzip:}") String gzip,
+                            @Value("${export.exit:true}") boolean exit) {
+        this.userExportService = userExportService;
+        this.applicationContext = applicationContext;
+        this.file = Path.of(file);
+        this.format = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        // Sin export.gzip explícito se comprime si el archivo termina en .gz
+        this.gzip = gzip.isBlank() ? file.endsWith(".gz") : Boolean.parseBoolean(gzip);
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        UserExportService.ExportResult result;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            result = userExportService.export(out, format, gzip);
+        }
+        log.info("Usuarios exportados a {}: {} usuarios, {} MB, {} usuarios/s", file, result.users(),
+                String.format("%.1f", result.bytes() / 1_048_576.0), String.format("%.0f", result.usersPerSecond()));
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package cl.bci.evaluacion.service;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.util.PhonePacker;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exporta todos los usuarios en CSV o NDJSON con memoria constante.
+ * Cada shard se recorre con un cursor JDBC forward-only sobre un único join ordenado users/phones,
+ * sin pasar por el contexto de persistencia; los códigos de teléfono se resuelven con el diccionario en memoria.
+ * No se exportan contraseñas ni tokens.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+    private static final String EXPORT_SQL = "SELECT u.id, u.name, u.email, u.created, u.modified, u.last_login, "
+            + "u.is_active, u.phones_packed, p.number, p.citycode_id, p.citycode, "
+            + "p.countrycode_id, p.countrycode "
+            + "FROM users u LEFT JOIN phones p ON p.user_id = u.id ORDER BY u.id";
+    private static final String CSV_HEADER = "id,name,email,created,modified,last_login,isactive,phones";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Resumen de una exportación.
+     */
+    public record ExportResult(long users, long bytes, long millis) {
+        public double usersPerSecond() {
+            return millis == 0 ? users : users * 1000.0 / millis;
+        }
+
+        public double megabytesPerSecond() {
+            return millis == 0 ? 0 : bytes / 1_048_576.0 * 1000.0 / millis;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final PhoneCodeDictionary phoneCodes;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final boolean httpEnabled;
+
+    public UserExportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ShardRouter shardRouter,
+                             PhoneCodeDictionary phoneCodes,
+                             @Value("${export.fetch-size:1000}") int fetchSize,
+                             @Value("${export.http.enabled:false}") boolean httpEnabled) {
+        // Copia propia: el fetch size solo aplica a la exportación
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        // readOnly: con el perfil replica la exportación se lee desde la réplica
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.phoneCodes = phoneCodes;
+        this.httpEnabled = httpEnabled;
+    }
+
+    public boolean isHttpEnabled() {
+        return httpEnabled;
+    }
+
+    /**
+     * Escribe todos los usuarios en el stream indicado. El stream no se cierra.
+     *
+     * @param target Destino (respuesta HTTP o archivo)
+     * @param format CSV o NDJSON
+     * @param gzip   Comprimir la salida con gzip
+     * @return Usuarios y bytes escritos, y duración
+     */
+    public ExportResult export(OutputStream target, Format format, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(target);
+        OutputStream out = gzip ? new GZIPOutputStream(counting, BUFFER_SIZE) : counting;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        UserRowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        rowWriter.begin();
+        long users = 0;
+        try {
+            for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+                users += shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                    GroupingHandler handler = new GroupingHandler(rowWriter);
+                    jdbcTemplate.query(EXPORT_SQL, handler);
+                    return handler.finish();
+                }));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.end();
+        writer.flush();
+        if (out instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        counting.flush();
+
+        ExportResult result = new ExportResult(users, counting.count, (System.nanoTime() - start) / 1_000_000);
+        log.info("Exportación {}{}: {} usuarios, {} bytes en {} ms ({} usuarios/s, {} MB/s)",
+                format, gzip ? "+gzip" : "", result.users(), result.bytes(), result.millis(),
+                String.format("%.0f", result.usersPerSecond()), String.format("%.1f", result.megabytesPerSecond()));
+        return result;
+    }
+
+    /**
+     * Agrupa las filas consecutivas del join (ordenado por id) en un usuario con sus teléfonos.
+     */
+    private final class GroupingHandler implements RowCallbackHandler {
+        private final UserRowWriter rowWriter;
+        private ExportedUser current;
+        private long users;
+
+        GroupingHandler(UserRowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID id = rs.getObject("id", UUID.class);
+            if (current == null || !current.id().equals(id)) {
+                flush();
+                String packed = rs.getString("phones_packed");
+                current = new ExportedUser(id, rs.getString("name"), rs.getString("email"),
+                        rs.getObject("created", LocalDateTime.class),
+                        rs.getObject("modified", LocalDateTime.class),
+                        rs.getObject("last_login", LocalDateTime.class),
+                        rs.getBoolean("is_active"),
+                        packed != null ? PhonePacker.unpack(packed) : new ArrayList<>());
+            }
+            String number = rs.getString("number");
+            if (number != null) {
+                current.phones().add(Phone.builder()
+                        .number(number)
+                        .citycode(phoneCodes.cities().codeOf(
+                                rs.getObject("citycode_id", Integer.class), rs.getString("citycode")))
+                        .countrycode(phoneCodes.countries().codeOf(
+                                rs.getObject("countrycode_id", Integer.class), rs.getString("countrycode")))
+                        .build());
+            }
+        }
+
+        long finish() {
+            flush();
+            return users;
+        }
+
+        private void flush() {
+            if (current == null) {
+                return;
+            }
+            try {
+                rowWriter.write(current);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            users++;
+            current = null;
+        }
+    }
+
+    private record ExportedUser(UUID id, String name, String email, LocalDateTime created, LocalDateTime modified,
+                                LocalDateTime lastLogin, boolean active, List<Phone> phones) {
+    }
+
+    private interface UserRowWriter {
+        void begin() throws IOException;
+
+        void write(ExportedUser user) throws IOException;
+
+        void end() throws IOException;
+    }
+
+    /**
+     * Una línea por usuario; los teléfonos van en una columna como number:citycode:countrycode separados por |.
+     */
+    private static final class CsvRowWriter implements UserRowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ExportedUser user) throws IOException {
+            writer.write(user.id().toString());
+            writer.write(',');
+            writeField(user.name());
+            writer.write(',');
+            writeField(user.email());
+            writer.write(',');
+            writer.write(TIMESTAMP.format(user.created()));
+            writer.write(',');
+            writer.write(TIMESTAMP.format(user.modified()));
+            writer.write(',');
+            writer.write(TIMESTAMP.format(user.lastLogin()));
+            writer.write(',');
+            writer.write(Boolean.toString(user.active()));
+            writer.write(',');
+            StringBuilder phones = new StringBuilder();
+            for (Phone phone : user.phones()) {
+                if (!phones.isEmpty()) {
+                    phones.append('|');
+                }
+                phones.append(phone.getNumber()).append(':').append(phone.getCitycode())
+                        .append(':').append(phone.getCountrycode());
+            }
+            writeField(phones.toString());
+            writer.write('\n');
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Un objeto JSON por línea, con los mismos nombres de campo que la API (sin token).
+     */
+    private final class NdjsonRowWriter implements UserRowWriter {
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            generator = jsonFactory.createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportedUser user) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", user.id().toString());
+            generator.writeStringField("name", user.name());
+            generator.writeStringField("email", user.email());
+            generator.writeStringField("created", TIMESTAMP.format(user.created()));
+            generator.writeStringField("modified", TIMESTAMP.format(user.modified()));
+            generator.writeStringField("last_login", TIMESTAMP.format(user.lastLogin()));
+            generator.writeBooleanField("isactive", user.active());
+            generator.writeArrayFieldStart("phones");
+            for (Phone phone : user.phones()) {
+                generator.writeStartObject();
+                generator.writeStringField("number", phone.getNumber());
+                generator.writeStringField("citycode", phone.getCitycode());
+                generator.writeStringField("contrycode", phone.getCountrycode());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Cuenta los bytes efectivamente escritos en el destino (después de gzip).
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
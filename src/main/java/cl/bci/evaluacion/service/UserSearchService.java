@@ -0,0 +1,140 @@
+package cl.bci.evaluacion.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.exception.InvalidQueryException;
+import cl.bci.evaluacion.util.UserSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Búsqueda de usuarios por texto parcial de correo o nombre (search.enabled) sobre un {@link UserSearchIndex}.
+ * El índice se construye al iniciar recorriendo la tabla users de cada shard (fetch size search.fetch-size,
+ * sin cargar entidades) y se mantiene al día con cada registro y actualización de perfil.
+ * Un registro concurrente con la construcción puede quedar indexado dos veces; el índice descarta los repetidos
+ * antes de aplicar el límite.
+ */
+@Slf4j
+@Component
+public class UserSearchService implements ApplicationRunner {
+    private static final String SCAN_SQL = "SELECT id, email, name FROM users";
+    private static final int MAX_RESULTS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final UserSearchIndex index = new UserSearchIndex();
+    private final boolean enabled;
+    private final Timer queries;
+
+    public UserSearchService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ShardRouter shardRouter,
+                             MeterRegistry meterRegistry,
+                             @Value("${search.enabled:false}") boolean enabled,
+                             @Value("${search.fetch-size:1000}") int fetchSize) {
+        // Copia propia: el fetch size solo aplica a la construcción del índice
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.queries = Timer.builder("search.index.query")
+                .description("Latencia de búsqueda en el índice de usuarios")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("search.index.documents", index, UserSearchIndex::size)
+                .description("Usuarios indexados")
+                .register(meterRegistry);
+        Gauge.builder("search.index.removed", index, UserSearchIndex::removed)
+                .description("Versiones reemplazadas pendientes de compactación")
+                .register(meterRegistry);
+        Gauge.builder("search.index.memory", index, UserSearchIndex::memoryBytes)
+                .description("Memoria estimada del índice de búsqueda")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            shardRouter.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                jdbcTemplate.query(SCAN_SQL, rs -> {
+                    index.add(rs.getObject("id", UUID.class), rs.getString("email"), rs.getString("name"));
+                });
+                return null;
+            }));
+        }
+        log.info("Índice de búsqueda: {} usuarios, {} MB en {} ms", index.size(),
+                index.memoryBytes() / 1_048_576, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexa un usuario recién registrado. Si el registro corre dentro de una transacción del llamador
+     * (el calentamiento, que la revierte) se indexa solo cuando esta confirma.
+     */
+    public void added(UUID id, String email, String name) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.add(id, email, name);
+                }
+            });
+        } else {
+            index.add(id, email, name);
+        }
+    }
+
+    /**
+     * Reindexa un usuario cuyo perfil cambió.
+     */
+    public void updated(UUID id, String email, String name) {
+        if (enabled) {
+            index.update(id, email, name);
+        }
+    }
+
+    /**
+     * @param query Texto a buscar en correo o nombre (al menos 3 caracteres)
+     * @param limit Máximo de resultados (entre 1 y 100; uno mayor se reduce a 100)
+     * @return Usuarios encontrados
+     * @throws InvalidQueryException si el texto tiene menos de 3 caracteres o el límite es menor que 1
+     */
+    public List<UserSearchIndex.Match> search(String query, int limit) {
+        if (query == null || query.strip().length() < UserSearchIndex.MIN_QUERY_LENGTH) {
+            throw new InvalidQueryException("La búsqueda requiere al menos " + UserSearchIndex.MIN_QUERY_LENGTH + " caracteres");
+        }
+        if (limit < 1) {
+            throw new InvalidQueryException("El límite debe ser al menos 1");
+        }
+        String text = query.strip();
+        return queries.record(() -> index.search(text, Math.min(limit, MAX_RESULTS)));
+    }
+}
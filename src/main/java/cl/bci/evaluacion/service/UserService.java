@@ -1,14 +1,41 @@
 package cl.bci.evaluacion.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import cl.bci.evaluacion.datasource.ReplicaRouter;
+import cl.bci.evaluacion.datasource.ShardRouter;
 import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.exception.EmailChangeNotAllowedException;
+import cl.bci.evaluacion.exception.InvalidFieldException;
+import cl.bci.evaluacion.exception.UserAccessNotAllowedException;
+import cl.bci.evaluacion.exception.UserNotFoundException;
 import cl.bci.evaluacion.model.dto.PhoneDTO;
 import cl.bci.evaluacion.model.dto.UserRequestDTO;
 import cl.bci.evaluacion.model.dto.UserResponseDTO;
 import cl.bci.evaluacion.model.entity.Phone;
 import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.monitoring.DbFlushEvent;
+import cl.bci.evaluacion.monitoring.EmailCheckEvent;
+import cl.bci.evaluacion.monitoring.JwtSignEvent;
+import cl.bci.evaluacion.monitoring.PasswordHashEvent;
+import cl.bci.evaluacion.outbox.OutboxWriter;
 import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.util.EmailNormalizer;
 import cl.bci.evaluacion.util.JwtUtil;
 import cl.bci.evaluacion.util.PasswordEncoder;
 import lombok.AllArgsConstructor;
@@ -19,41 +46,326 @@ public class UserService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final ShardRouter shardRouter;
+    private final ReplicaRouter replicaRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxWriter outboxWriter;
+    private final GroupCommitWriter groupCommitWriter;
+    private final PhoneStorage phoneStorage;
+    private final PhoneCodeDictionary phoneCodes;
+    private final InFlightRegistrations inFlightRegistrations;
+    private final RegistrationPipeline registrationPipeline;
+    private final UserSearchService userSearchService;
+
+    /**
+     * Campos de una lectura parcial y fecha de modificación del usuario.
+     */
+    public record UserFields(LocalDateTime modified, Map<String, Object> values) {
+    }
+
+    // Campos del contrato JSON (en su orden) y atributo de User correspondiente; phones no es una columna.
+    // El token es una credencial vigente: solo se entrega en la respuesta del registro, nunca en lecturas
+    private static final Map<String, String> ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        ATTRIBUTES.put("id", "id");
+        ATTRIBUTES.put("name", "name");
+        ATTRIBUTES.put("email", "email");
+        ATTRIBUTES.put("created", "created");
+        ATTRIBUTES.put("modified", "modified");
+        ATTRIBUTES.put("last_login", "lastLogin");
+        ATTRIBUTES.put("isactive", "isActive");
+        ATTRIBUTES.put("phones", "phones");
+    }
 
     public UserResponseDTO registerUser(UserRequestDTO request) {
-        // Chequear email
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new DuplicateEmailException("El correo ya registrado");
-        }
+        // Correo normalizado: la unicidad no distingue mayúsculas
+        String email = EmailNormalizer.normalize(request.getEmail());
 
-        // Generar token JWT con claim de rol usuario
-        String token = jwtUtil.generateJWT(request.getEmail());
+        // Solicitudes concurrentes con el mismo correo: solo la primera cifra y persiste
+        return inFlightRegistrations.register(email, () -> register(email, request));
+    }
 
-        // Encriptar password con bCrypt
-        String encryptedPassword = passwordEncoder.encode(request.getPassword());
+    private UserResponseDTO register(String email, UserRequestDTO request) {
+        // En modo pipeline la firma corre en paralelo al chequeo y al cifrado
+        RegistrationPipeline.Credentials credentials = registrationPipeline.isEnabled()
+                ? registrationPipeline.prepare(email, request.getPassword())
+                : prepare(email, request.getPassword());
 
         // Crear usuario
         User user = User.builder()
                 .name(request.getName())
-                .email(request.getEmail())
-                .password(encryptedPassword)
-                .token(token)
-                .phones(request.getPhones().stream()
-                        .map(phoneDTO -> Phone.builder()
-                                .number(phoneDTO.getNumber())
-                                .citycode(phoneDTO.getCitycode())
-                                .countrycode(phoneDTO.getCountrycode())
-                                .build())
-                        .toList())
+                .email(email)
+                .password(credentials.encryptedPassword())
+                .token(credentials.token())
+                // Después de generar el token: nunca vence antes que el JWT
+                .tokenExpires(LocalDateTime.now().plus(Duration.ofMillis(jwtUtil.getExpiration())))
+                .phones(toPhones(request.getPhones()))
                 .build();
 
         // Añadir usuario a los telefonos
         user.getPhones().forEach(phone -> phone.setUser(user));
+        user.normalizeEmail();
+        phoneStorage.prepare(user);
 
-        User savedUser = userRepository.save(user);
+        DbFlushEvent dbFlush = new DbFlushEvent();
+        dbFlush.begin();
+        User savedUser = persist(user);
+        dbFlush.commit();
+        replicaRouter.recordWrite(savedUser.getId());
+        userSearchService.added(savedUser.getId(), savedUser.getEmail(), savedUser.getName());
         return mapToResponseDTO(savedUser);
     }
 
+    private RegistrationPipeline.Credentials prepare(String email, String password) {
+        // Chequear email (en el shard del correo)
+        EmailCheckEvent emailCheck = new EmailCheckEvent();
+        emailCheck.begin();
+        boolean exists = shardRouter.onShardOf(email, () -> userRepository.existsByEmail(email));
+        emailCheck.commit();
+        if (exists) {
+            throw new DuplicateEmailException("El correo ya registrado");
+        }
+
+        // Generar token JWT con claim de rol usuario
+        JwtSignEvent jwtSign = new JwtSignEvent();
+        jwtSign.begin();
+        String token = jwtUtil.generateJWT(email);
+        jwtSign.commit();
+
+        // Encriptar password con bCrypt
+        PasswordHashEvent passwordHash = new PasswordHashEvent();
+        passwordHash.begin();
+        String encryptedPassword = passwordEncoder.encode(password);
+        passwordHash.commit();
+
+        return new RegistrationPipeline.Credentials(token, encryptedPassword);
+    }
+
+    private User persist(User user) {
+        // Con group commit el insert se agrupa con los de otras solicitudes concurrentes, salvo dentro de una
+        // transacción del llamador (el calentamiento): el writer confirma en las suyas y no se revertiría
+        if (groupCommitWriter.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return groupCommitWriter.write(user);
+        }
+
+        // Usuario y evento UserRegistered en la misma transacción
+        try {
+            return shardRouter.onShardOf(user.getEmail(), () -> transactionTemplate.execute(status -> {
+                User saved = userRepository.save(user);
+                outboxWriter.userRegistered(saved);
+                return saved;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Otro registro del mismo correo (otra instancia o sin single-flight) pasó el chequeo a la vez
+            if (GroupCommitWriter.isDuplicateEmail(e)) {
+                throw new DuplicateEmailException("El correo ya registrado");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reemplaza los teléfonos del usuario insertando y eliminando solo los que cambian.
+     *
+     * @param id      Identificador del usuario
+     * @param subject Subject del token ya validado ({@link JwtUtil#authenticate}); debe ser el correo del usuario
+     * @param phones  Teléfonos deseados
+     * @return Usuario actualizado
+     * @throws UserAccessNotAllowedException si el token es de otro usuario
+     */
+    public UserResponseDTO updatePhones(UUID id, String subject, List<PhoneDTO> phones) {
+        List<Phone> desired = toPhones(phones);
+        return update(id, subject, user -> phoneStorage.update(user, desired));
+    }
+
+    /**
+     * Reemplaza el perfil completo (nombre, contraseña y teléfonos). El correo no se puede modificar:
+     * identifica al usuario, es el sujeto del token y determina su shard.
+     *
+     * @param id      Identificador del usuario
+     * @param subject Subject del token ya validado ({@link JwtUtil#authenticate}); debe ser el correo del usuario
+     * @param request Perfil completo, con el mismo correo registrado
+     * @return Usuario actualizado
+     * @throws UserAccessNotAllowedException si el token es de otro usuario
+     * @throws EmailChangeNotAllowedException si el correo no coincide con el registrado
+     */
+    public UserResponseDTO updateUser(UUID id, String subject, UserRequestDTO request) {
+        String email = EmailNormalizer.normalize(request.getEmail());
+        // BCrypt fuera de la transacción: no retiene la conexión mientras cifra
+        PasswordHashEvent passwordHash = new PasswordHashEvent();
+        passwordHash.begin();
+        String encryptedPassword = passwordEncoder.encode(request.getPassword());
+        passwordHash.commit();
+        List<Phone> phones = toPhones(request.getPhones());
+
+        UserResponseDTO user = update(id, subject, stored -> {
+            if (!stored.getEmail().equals(email)) {
+                throw new EmailChangeNotAllowedException("El correo no se puede modificar");
+            }
+            stored.setName(request.getName());
+            stored.setPassword(encryptedPassword);
+            phoneStorage.update(stored, phones);
+            return true;
+        });
+        userSearchService.updated(id, email, user.getName());
+        return user;
+    }
+
+    /**
+     * Carga el usuario con sus teléfonos en una transacción de escritura en su shard, verifica que el token sea
+     * suyo, aplica el cambio y hace flush. Si el cambio solo tocó teléfonos se marca el usuario para que
+     * @PreUpdate actualice modified. La respuesta no incluye el token.
+     */
+    private UserResponseDTO update(UUID id, String subject, Predicate<User> change) {
+        UserResponseDTO response = onShardOfUser(id, () -> transactionTemplate.execute(status -> {
+            User user = userRepository.findWithPhonesById(id)
+                    .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"));
+            checkOwner(user.getEmail(), subject);
+            if (change.test(user)) {
+                user.touch();
+                userRepository.flush();
+            }
+            return mapToResponseDTO(user);
+        }));
+        response.setToken(null);
+        replicaRouter.recordWrite(id);
+        return response;
+    }
+
+    /**
+     * @throws UserAccessNotAllowedException si el subject del token no es el correo del usuario
+     */
+    private static void checkOwner(Object email, String subject) {
+        if (!EmailNormalizer.normalize(subject).equals(email)) {
+            throw new UserAccessNotAllowedException("El token no corresponde al usuario");
+        }
+    }
+
+    /**
+     * Ejecuta la acción en el shard del usuario; con varios shards lo ubica leyendo solo su correo.
+     */
+    private <T> T onShardOfUser(UUID id, Supplier<T> action) {
+        if (shardRouter.getShards() == 1) {
+            return action.get();
+        }
+        Object email = replicaRouter.read(id,
+                        () -> shardRouter.findFirst(() -> userRepository.findAttributesById(id, List.of("email"))))
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"))
+                .get("email");
+        return shardRouter.onShardOf((String) email, action);
+    }
+
+    /**
+     * Teléfonos con los códigos canónicos del diccionario (los códigos desconocidos se conservan como llegan).
+     */
+    private List<Phone> toPhones(List<PhoneDTO> phones) {
+        return phones.stream()
+                .map(phoneDTO -> Phone.builder()
+                        .number(phoneDTO.getNumber())
+                        .citycode(phoneCodes.cities().canonical(phoneDTO.getCitycode()))
+                        .countrycode(phoneCodes.countries().canonical(phoneDTO.getCountrycode()))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Usuario con sus teléfonos, sin el token ni verificar quién lo pide (lecturas internas).
+     */
+    public UserResponseDTO findUser(UUID id) {
+        // Lectura readOnly: puede resolverse en la réplica
+        UserResponseDTO user = replicaRouter.read(id, () -> shardRouter.findFirst(() -> loadUser(id)))
+                .map(this::mapToResponseDTO)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"));
+        user.setToken(null);
+        return user;
+    }
+
+    /**
+     * Usuario con sus teléfonos, sin el token, leído por el propio usuario.
+     *
+     * @param id      Identificador del usuario
+     * @param subject Subject del token ya validado ({@link JwtUtil#authenticate}); debe ser el correo del usuario
+     * @return Usuario encontrado
+     * @throws UserAccessNotAllowedException si el token es de otro usuario
+     */
+    public UserResponseDTO findUser(UUID id, String subject) {
+        UserResponseDTO user = findUser(id);
+        checkOwner(user.getEmail(), subject);
+        return user;
+    }
+
+    /**
+     * Lectura parcial de un usuario con los campos pedidos (nombres del contrato JSON), por el propio usuario.
+     * Sin teléfonos se leen solo las columnas pedidas, email (para verificar el token) y modified;
+     * con teléfonos se carga el usuario completo.
+     *
+     * @param id      Identificador del usuario
+     * @param subject Subject del token ya validado ({@link JwtUtil#authenticate}); debe ser el correo del usuario
+     * @param fields  Campos pedidos
+     * @return Campos en el orden del contrato JSON y fecha de modificación (para el ETag)
+     * @throws InvalidFieldException si un campo no existe
+     * @throws UserAccessNotAllowedException si el token es de otro usuario
+     */
+    public UserFields findUserFields(UUID id, String subject, Set<String> fields) {
+        for (String field : fields) {
+            if (!ATTRIBUTES.containsKey(field)) {
+                throw new InvalidFieldException("Campo inválido: " + field);
+            }
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (fields.contains("phones")) {
+            UserResponseDTO user = findUser(id, subject);
+            ATTRIBUTES.keySet().stream()
+                    .filter(fields::contains)
+                    .forEach(field -> values.put(field, valueOf(user, field)));
+            return new UserFields(user.getModified(), values);
+        }
+
+        Set<String> attributes = new LinkedHashSet<>();
+        ATTRIBUTES.forEach((field, attribute) -> {
+            if (fields.contains(field)) {
+                attributes.add(attribute);
+            }
+        });
+        attributes.add("email");
+        attributes.add("modified");
+        Map<String, Object> row = replicaRouter.read(id,
+                        () -> shardRouter.findFirst(() -> userRepository.findAttributesById(id, attributes)))
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"));
+        checkOwner(row.get("email"), subject);
+        ATTRIBUTES.forEach((field, attribute) -> {
+            if (fields.contains(field)) {
+                values.put(field, row.get(attribute));
+            }
+        });
+        return new UserFields((LocalDateTime) row.get("modified"), values);
+    }
+
+    private static Object valueOf(UserResponseDTO user, String field) {
+        return switch (field) {
+            case "id" -> user.getId();
+            case "name" -> user.getName();
+            case "email" -> user.getEmail();
+            case "created" -> user.getCreated();
+            case "modified" -> user.getModified();
+            case "last_login" -> user.getLastLogin();
+            case "isactive" -> user.isActive();
+            default -> user.getPhones();
+        };
+    }
+
+    private Optional<User> loadUser(UUID id) {
+        // En modo packed se evita el join con phones, salvo para filas aún no migradas
+        if (phoneStorage.isPacked()) {
+            Optional<User> user = userRepository.findWithoutPhonesById(id);
+            if (user.isEmpty() || user.get().getPhonesPacked() != null) {
+                return user;
+            }
+        }
+        return userRepository.findWithPhonesById(id);
+    }
+
     private UserResponseDTO mapToResponseDTO(User user) {
         return UserResponseDTO.builder()
                 .id(user.getId())
@@ -64,11 +376,12 @@ public class UserService {
                 .lastLogin(user.getLastLogin())
                 .token(user.getToken())
                 .isActive(user.isActive())
-                .phones(user.getPhones().stream()
+                .phones(phoneStorage.phonesOf(user).stream()
+                        // Las filas de phones ya traen instancias canónicas; las empaquetadas se reemplazan aquí
                         .map(phone -> PhoneDTO.builder()
                                 .number(phone.getNumber())
-                                .citycode(phone.getCitycode())
-                                .countrycode(phone.getCountrycode())
+                                .citycode(phoneCodes.cities().canonical(phone.getCitycode()))
+                                .countrycode(phoneCodes.countries().canonical(phone.getCountrycode()))
                                 .build())
                         .toList())
                 .build();
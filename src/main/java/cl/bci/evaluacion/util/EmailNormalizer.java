@@ -0,0 +1,42 @@
+package cl.bci.evaluacion.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Normalización y hash estable de correos.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    /**
+     * Normaliza un correo para comparaciones (sin espacios y en minúsculas).
+     *
+     * @param email Correo tal como fue recibido
+     * @return Correo normalizado, o null si el correo es null
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Hash de 64 bits estable entre procesos y plataformas (primeros 8 bytes de SHA-256).
+     *
+     * @param normalizedEmail Correo ya normalizado
+     * @return Hash del correo
+     */
+    public static long hash(String normalizedEmail) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalizedEmail.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.util.Date;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import cl.bci.evaluacion.exception.InvalidTokenException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -13,12 +15,21 @@ import io.jsonwebtoken.security.Keys;
  */
 @Component
 public class JwtUtil {
+    private static final String BEARER_PREFIX = "Bearer ";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    /**
+     * @return Vigencia de los tokens en ms
+     */
+    public long getExpiration() {
+        return jwtExpiration;
+    }
+
     /**
      * Genera un token JWT para un usuario.
      *
@@ -37,4 +48,31 @@ public class JwtUtil {
                 .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
                 .compact();
     }
+
+    /**
+     * Valida el header Authorization (Bearer) con la firma y el vencimiento del token.
+     *
+     * @param authorization Valor del header Authorization, o null
+     * @return Subject del token (email del usuario)
+     * @throws InvalidTokenException si falta el token, no es Bearer, la firma no es válida o está vencido
+     */
+    public String authenticate(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            throw new InvalidTokenException("Token requerido");
+        }
+        try {
+            String subject = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                    .build()
+                    .parseSignedClaims(authorization.substring(BEARER_PREFIX.length()).trim())
+                    .getPayload()
+                    .getSubject();
+            if (subject == null) {
+                throw new InvalidTokenException("Token inválido");
+            }
+            return subject;
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Token inválido");
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package cl.bci.evaluacion.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cl.bci.evaluacion.model.entity.Phone;
+
+/**
+ * Empaqueta los teléfonos de un usuario en una columna JSON compacta: [["number","citycode","countrycode"],...].
+ */
+public final class PhonePacker {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String[]>> PACKED_TYPE = new TypeReference<>() {
+    };
+
+    private PhonePacker() {
+    }
+
+    /**
+     * @param phones Teléfonos a empaquetar
+     * @return JSON compacto con los teléfonos, sin id ni usuario
+     */
+    public static String pack(List<Phone> phones) {
+        List<String[]> packed = new ArrayList<>(phones.size());
+        for (Phone phone : phones) {
+            packed.add(new String[] {phone.getNumber(), phone.getCitycode(), phone.getCountrycode()});
+        }
+        try {
+            return MAPPER.writeValueAsString(packed);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron empaquetar los teléfonos", e);
+        }
+    }
+
+    /**
+     * @param packed JSON generado por {@link #pack(List)}
+     * @return Teléfonos desempaquetados (transientes, sin id)
+     */
+    public static List<Phone> unpack(String packed) {
+        try {
+            List<String[]> values = MAPPER.readValue(packed, PACKED_TYPE);
+            List<Phone> phones = new ArrayList<>(values.size());
+            for (String[] value : values) {
+                phones.add(Phone.builder()
+                        .number(value[0])
+                        .citycode(value[1])
+                        .countrycode(value[2])
+                        .build());
+            }
+            return phones;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Columna phones_packed inválida", e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package cl.bci.evaluacion.util;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de trigramas sobre correo y nombre para búsquedas por texto parcial.
+ * Cada usuario es un documento con un número correlativo; por trigrama se guarda una lista de documentos
+ * en un int[] ordenado (los documentos se agregan en orden creciente). Los id se guardan en dos long[] y el
+ * texto ("correo\nnombre" en UTF-8) en un único byte[], sin objetos por usuario.
+ * Una búsqueda intersecta las listas de los trigramas de la consulta, partiendo de la más corta,
+ * y verifica cada candidato contra el texto. Correo, nombre y consulta se comparan en minúsculas y sin tildes.
+ * Una actualización deja el documento anterior marcado como eliminado (texto y entradas en las listas siguen
+ * ocupando memoria); cuando los eliminados superan {@link #COMPACT_MIN_REMOVED} y la mitad de los documentos,
+ * el índice se compacta renumerando los vigentes.
+ * Seguro para hilos: lecturas concurrentes, escrituras exclusivas y breves.
+ */
+public class UserSearchIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int INITIAL_DOCUMENTS = 1024;
+    private static final int INITIAL_POSTINGS = 4;
+    static final int COMPACT_MIN_REMOVED = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private long[] idMost = new long[INITIAL_DOCUMENTS];
+    private long[] idLeast = new long[INITIAL_DOCUMENTS];
+    // Texto del documento d en text[textStart[d], textStart[d + 1])
+    private int[] textStart = new int[INITIAL_DOCUMENTS + 1];
+    private byte[] text = new byte[INITIAL_DOCUMENTS * 48];
+    private int documents;
+    private int removedCount;
+
+    /**
+     * Usuario encontrado.
+     */
+    public record Match(UUID id, String email, String name) {
+    }
+
+    /**
+     * Documentos de un trigrama, en orden creciente.
+     */
+    private static final class Postings {
+        private int[] docs = new int[INITIAL_POSTINGS];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+
+    /**
+     * Agrega un usuario al índice.
+     */
+    public void add(UUID id, String email, String name) {
+        byte[] bytes = (email + "\n" + name).getBytes(StandardCharsets.UTF_8);
+        String folded = fold(email + "\n" + name);
+        lock.writeLock().lock();
+        try {
+            int doc = documents++;
+            ensureCapacity(doc, bytes.length);
+            idMost[doc] = id.getMostSignificantBits();
+            idLeast[doc] = id.getLeastSignificantBits();
+            System.arraycopy(bytes, 0, text, textStart[doc], bytes.length);
+            textStart[doc + 1] = textStart[doc] + bytes.length;
+            for (int i = 0; i + MIN_QUERY_LENGTH <= folded.length(); i++) {
+                postings.computeIfAbsent(trigram(folded, i), key -> new Postings()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza los datos de un usuario (el correo no cambia): marca como eliminado el documento anterior
+     * y agrega uno nuevo.
+     */
+    public void update(UUID id, String email, String name) {
+        lock.writeLock().lock();
+        try {
+            for (int doc : candidates(fold(email))) {
+                if (!removed.get(doc) && idMost[doc] == id.getMostSignificantBits()
+                        && idLeast[doc] == id.getLeastSignificantBits()) {
+                    removed.set(doc);
+                    removedCount++;
+                }
+            }
+            add(id, email, name);
+            if (removedCount >= COMPACT_MIN_REMOVED && removedCount * 2 > documents) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta los documentos eliminados: renumera los vigentes conservando su orden (las listas siguen ordenadas),
+     * copia su texto y elimina las listas que quedan vacías. Requiere el lock de escritura tomado.
+     */
+    private void compact() {
+        int live = documents - removedCount;
+        int[] renumbered = new int[documents];
+        long[] newMost = new long[Math.max(INITIAL_DOCUMENTS, live + (live >> 1))];
+        long[] newLeast = new long[newMost.length];
+        int[] newStart = new int[newMost.length + 1];
+        byte[] newText = new byte[Math.max(INITIAL_DOCUMENTS * 48, textStart[documents] - removedBytes())];
+        int next = 0;
+        for (int doc = 0; doc < documents; doc++) {
+            if (removed.get(doc)) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            int length = textStart[doc + 1] - textStart[doc];
+            newMost[next] = idMost[doc];
+            newLeast[next] = idLeast[doc];
+            System.arraycopy(text, textStart[doc], newText, newStart[next], length);
+            newStart[next + 1] = newStart[next] + length;
+            renumbered[doc] = next++;
+        }
+        postings.values().removeIf(list -> {
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                int doc = renumbered[list.docs[i]];
+                if (doc >= 0) {
+                    list.docs[size++] = doc;
+                }
+            }
+            list.size = size;
+            list.docs = Arrays.copyOf(list.docs, Math.max(size, INITIAL_POSTINGS));
+            return size == 0;
+        });
+        idMost = newMost;
+        idLeast = newLeast;
+        textStart = newStart;
+        text = newText;
+        documents = live;
+        removed.clear();
+        removedCount = 0;
+    }
+
+    /**
+     * Bytes de texto de los documentos eliminados. Requiere el lock tomado.
+     */
+    private int removedBytes() {
+        int bytes = 0;
+        for (int doc = removed.nextSetBit(0); doc >= 0; doc = removed.nextSetBit(doc + 1)) {
+            bytes += textStart[doc + 1] - textStart[doc];
+        }
+        return bytes;
+    }
+
+    /**
+     * Busca usuarios cuyo correo o nombre contenga el texto.
+     *
+     * @param query Texto a buscar (al menos {@link #MIN_QUERY_LENGTH} caracteres)
+     * @param limit Máximo de resultados (al menos 1)
+     * @return Usuarios encontrados, en orden de inserción y sin repetir id
+     */
+    public List<Match> search(String query, int limit) {
+        String folded = fold(query);
+        if (folded.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("La búsqueda requiere al menos " + MIN_QUERY_LENGTH + " caracteres");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser al menos 1");
+        }
+        List<Match> matches = new ArrayList<>();
+        // Un usuario indexado dos veces (registro concurrente con la construcción) cuenta una sola vez
+        Set<UUID> seen = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (int doc : candidates(folded)) {
+                if (removed.get(doc)) {
+                    continue;
+                }
+                String value = new String(text, textStart[doc], textStart[doc + 1] - textStart[doc], StandardCharsets.UTF_8);
+                UUID id = new UUID(idMost[doc], idLeast[doc]);
+                if (fold(value).contains(folded) && seen.add(id)) {
+                    int separator = value.indexOf('\n');
+                    matches.add(new Match(id, value.substring(0, separator), value.substring(separator + 1)));
+                    if (matches.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Documentos que contienen todos los trigramas del texto (sin verificar). Requiere el lock tomado.
+     */
+    private int[] candidates(String folded) {
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= folded.length(); i++) {
+            trigrams.add(trigram(folded, i));
+        }
+        Postings[] lists = new Postings[trigrams.size()];
+        int n = 0;
+        for (long trigram : trigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        Postings shortest = lists[0];
+        int[] result = new int[shortest.size];
+        int found = 0;
+        next:
+        for (int i = 0; i < shortest.size; i++) {
+            int doc = shortest.docs[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(doc)) {
+                    continue next;
+                }
+            }
+            result[found++] = doc;
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    private void ensureCapacity(int doc, int bytes) {
+        if (doc == idMost.length) {
+            int capacity = doc + (doc >> 1);
+            idMost = Arrays.copyOf(idMost, capacity);
+            idLeast = Arrays.copyOf(idLeast, capacity);
+            textStart = Arrays.copyOf(textStart, capacity + 1);
+        }
+        int needed = textStart[doc] + bytes;
+        if (needed > text.length) {
+            text = Arrays.copyOf(text, Math.max(needed, text.length + (text.length >> 1)));
+        }
+    }
+
+    private static long trigram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    /**
+     * Minúsculas y sin tildes.
+     */
+    static String fold(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 0x80) {
+                return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * @return Usuarios indexados (sin contar versiones reemplazadas)
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents - removedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Versiones reemplazadas que aún ocupan memoria hasta la próxima compactación
+     */
+    public int removed() {
+        lock.readLock().lock();
+        try {
+            return removedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimación de memoria retenida: arreglos de documentos y texto, listas de trigramas y sus entradas en el mapa,
+     * incluidos los documentos eliminados aún no compactados.
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L * idMost.length + 4L * textStart.length + text.length + removed.size() / 8;
+            for (Postings list : postings.values()) {
+                // int[] (cabecera + datos) + Postings + Long + nodo del HashMap
+                bytes += 16 + 4L * list.docs.length + 24 + 24 + 32;
+            }
+            return bytes + 4L * postings.size() * 2;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import cl.bci.evaluacion.monitoring.ValidationEvent;
+
 @Component
 public class EmailValidator implements ConstraintValidator<ValidEmail, String> {
     @Value("${validation.email.pattern}")
@@ -15,6 +17,13 @@ public class EmailValidator implements ConstraintValidator<ValidEmail, String> {
         if (value == null) {
             return false;
         }
-        return value.matches(pattern);
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        boolean valid = value.matches(pattern);
+        if (event.shouldCommit()) {
+            event.constraint = "email";
+        }
+        event.commit();
+        return valid;
     }
 }
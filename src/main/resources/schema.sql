@@ -1,23 +1,72 @@
 CREATE TABLE IF NOT EXISTS users (
     id UUID PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL,
+    email_hash BIGINT NOT NULL,
     password VARCHAR(255) NOT NULL,
     created TIMESTAMP NOT NULL,
     modified TIMESTAMP NOT NULL,
     last_login TIMESTAMP NOT NULL,
-    token VARCHAR(255) NOT NULL,
-    is_active BOOLEAN NOT NULL DEFAULT TRUE
+    token VARCHAR(255),
+    token_expires TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    phones_packed CLOB,
+    CONSTRAINT uk_users_email_hash UNIQUE (email_hash)
+);
+
+-- Bases durables creadas antes de phones_packed y token_expires: CREATE TABLE IF NOT EXISTS no agrega columnas.
+-- Idempotente. Despues de este script, SchemaPopulator asigna a los tokens existentes el vencimiento segun
+-- jwt.expiration y agrega email_hash (SHA-256 del correo normalizado).
+ALTER TABLE users ADD COLUMN IF NOT EXISTS phones_packed CLOB;
+ALTER TABLE users ALTER COLUMN phones_packed SET DATA TYPE CLOB;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_expires TIMESTAMP;
+ALTER TABLE users ALTER COLUMN token SET NULL;
+
+-- Diccionario de codigos de telefono (PhoneCodeDictionary): phones guarda el id de los codigos conocidos y el texto de los demas
+CREATE TABLE IF NOT EXISTS phone_country_codes (
+    id INT PRIMARY KEY,
+    code VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_phone_country_codes_code UNIQUE (code)
+);
+
+CREATE TABLE IF NOT EXISTS phone_city_codes (
+    id INT PRIMARY KEY,
+    code VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_phone_city_codes_code UNIQUE (code)
 );
 
 CREATE TABLE IF NOT EXISTS phones (
     id UUID PRIMARY KEY,
     number VARCHAR(255) NOT NULL,
-    citycode VARCHAR(255) NOT NULL,
-    countrycode VARCHAR(255) NOT NULL,
+    citycode_id INT,
+    citycode VARCHAR(255),
+    countrycode_id INT,
+    countrycode VARCHAR(255),
     user_id UUID NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
-CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
+-- Bases durables con codigos solo como texto (anteriores al diccionario) o solo como id: se agregan las columnas faltantes.
+-- Al iniciar, PhoneCodeDictionary pasa a id los codigos de texto que esten en el diccionario
+ALTER TABLE phones ADD COLUMN IF NOT EXISTS citycode_id INT;
+ALTER TABLE phones ADD COLUMN IF NOT EXISTS citycode VARCHAR(255);
+ALTER TABLE phones ADD COLUMN IF NOT EXISTS countrycode_id INT;
+ALTER TABLE phones ADD COLUMN IF NOT EXISTS countrycode VARCHAR(255);
+ALTER TABLE phones ALTER COLUMN citycode_id SET NULL;
+ALTER TABLE phones ALTER COLUMN citycode SET NULL;
+ALTER TABLE phones ALTER COLUMN countrycode_id SET NULL;
+ALTER TABLE phones ALTER COLUMN countrycode SET NULL;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created TIMESTAMP NOT NULL
+);
+
 CREATE INDEX IF NOT EXISTS idx_phones_user_id ON phones(user_id);
+
+-- Barrido de tokens: token_expires queda NULL al limpiar el token, por lo que el rango solo recorre tokens vigentes o vencidos
+CREATE INDEX IF NOT EXISTS idx_users_token_expires ON users(token_expires, id);
+CREATE INDEX IF NOT EXISTS idx_users_is_active ON users(is_active, id);
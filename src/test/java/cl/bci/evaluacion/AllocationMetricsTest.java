@@ -0,0 +1,67 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la métrica de bytes asignados por solicitud, con muestreo de todas las solicitudes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:allocation-metrics-test",
+        "allocation.metrics.sample-rate=1"
+})
+@AutoConfigureMockMvc
+class AllocationMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testAllocatedBytesArePublishedPerEndpointAndStatus() throws Exception {
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email("asignacion@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build();
+        String body = objectMapper.writeValueAsString(request);
+
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+
+        DistributionSummary created = meterRegistry.find("http.server.requests.allocated")
+                .tags("uri", "/api/users", "method", "POST", "status", "201")
+                .summary();
+        DistributionSummary duplicate = meterRegistry.find("http.server.requests.allocated")
+                .tags("uri", "/api/users", "method", "POST", "status", "400")
+                .summary();
+        assertThat(created).isNotNull();
+        assertThat(created.count()).isEqualTo(1);
+        assertThat(created.max()).isPositive();
+        assertThat(duplicate).isNotNull();
+        assertThat(duplicate.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,160 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.exception.RegistrationQueueFullException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.RegistrationStatusDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.AsyncRegistrationService;
+import cl.bci.evaluacion.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests del registro asíncrono: 202 con URL de estado y consulta de PENDING/CREATED/REJECTED.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-registration-test",
+        "registration.async.enabled=true"
+})
+@AutoConfigureMockMvc
+class AsyncRegistrationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testAsyncRegistrationIsAcceptedAndCompletes() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/users")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request("async@rodriguez.org"))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+
+        JsonNode status = awaitCompletion(result.getResponse().getHeader("Location"));
+
+        assertThat(status.get("status").asText()).isEqualTo("CREATED");
+        assertThat(status.get("user").get("email").asText()).isEqualTo("async@rodriguez.org");
+        assertThat(status.get("user").get("token").asText()).isNotBlank();
+    }
+
+    @Test
+    void testAsyncDuplicateIsRejectedWithMensaje() throws Exception {
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request("duplicado@rodriguez.org"))))
+                .andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(post("/api/users")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request("duplicado@rodriguez.org"))))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        JsonNode status = awaitCompletion(result.getResponse().getHeader("Location"));
+
+        assertThat(status.get("status").asText()).isEqualTo("REJECTED");
+        assertThat(status.get("mensaje").asText()).isEqualTo("El correo ya registrado");
+    }
+
+    @Test
+    void testAsyncRegistrationIsValidatedSynchronously() throws Exception {
+        UserRequestDTO invalid = request("correo-invalido");
+
+        mockMvc.perform(post("/api/users")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").exists());
+    }
+
+    @Test
+    void testUnknownRegistrationReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/registrations/550e8400-e29b-41d4-a716-446655440000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.mensaje").exists());
+    }
+
+    @Test
+    void testShutdownDrainsTheQueueAndRejectsNewRequests(@TempDir Path tempDir) throws Exception {
+        // Un worker y sin journal: al detenerse quedan solicitudes en la cola
+        AsyncRegistrationService service = new AsyncRegistrationService(userService, objectMapper, true, 100, 1,
+                600_000, false, tempDir.resolve("journal.ndjson"), 30_000);
+        List<RegistrationStatusDTO> accepted = IntStream.range(0, 5)
+                .mapToObj(i -> service.submit(request("drenaje" + i + "@rodriguez.org")))
+                .toList();
+
+        service.shutdown();
+
+        assertThat(accepted).allSatisfy(status ->
+                assertThat(service.status(status.getId()).getStatus()).isEqualTo(RegistrationStatusDTO.Status.CREATED));
+        assertThatThrownBy(() -> service.submit(request("tarde@rodriguez.org")))
+                .isInstanceOf(RegistrationQueueFullException.class);
+    }
+
+    private JsonNode awaitCompletion(String location) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        JsonNode status;
+        do {
+            Thread.sleep(20);
+            String body = mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(body);
+        } while ("PENDING".equals(status.get("status").asText()) && System.currentTimeMillis() < deadline);
+        return status;
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,238 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.audit.AuditExportRunner;
+import cl.bci.evaluacion.audit.AuditJournal;
+import cl.bci.evaluacion.audit.AuditOutcome;
+import cl.bci.evaluacion.audit.AuditRecord;
+import cl.bci.evaluacion.audit.RegistrationAuditor;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.util.EmailNormalizer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests del journal de auditoría: escrituras concurrentes con cambio de segmento, reapertura tras un segmento
+ * que no se pudo abrir, límite de segmentos y auditoría de los intentos de registro leída como NDJSON.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-journal-test",
+        "audit.enabled=true",
+        "audit.directory=build/audit-test",
+        "registration.async.enabled=true"
+})
+@AutoConfigureMockMvc
+class AuditJournalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RegistrationAuditor registrationAuditor;
+
+    @Value("${audit.directory}")
+    private Path directory;
+
+    @Test
+    void testConcurrentAppendsRollSegmentsWithoutLosingRecords(@TempDir Path tempDir) throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        UUID userId = UUID.randomUUID();
+        try (AuditJournal journal = new AuditJournal(tempDir, AuditJournal.RECORD_SIZE * 100);
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(System.currentTimeMillis(), userId, base + i, AuditOutcome.CREATED, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            journal.flush();
+            assertThat(journal.getDropped()).isZero();
+        }
+
+        Set<Long> hashes = new HashSet<>();
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournal.read(tempDir, records::add);
+        records.forEach(record -> hashes.add(record.emailHash()));
+        assertThat(records).hasSize(threads * perThread);
+        assertThat(hashes).hasSize(threads * perThread);
+        assertThat(records).allSatisfy(record -> {
+            assertThat(record.userId()).isEqualTo(userId);
+            assertThat(record.outcome()).isEqualTo(AuditOutcome.CREATED);
+        });
+        try (Stream<Path> segments = Files.list(tempDir)) {
+            assertThat(segments.count()).isGreaterThanOrEqualTo(threads * perThread / 100);
+        }
+    }
+
+    @Test
+    void testFlushReopensAfterAFailedRoll(@TempDir Path tempDir) throws Exception {
+        Path directory = tempDir.resolve("audit");
+        try (AuditJournal journal = new AuditJournal(directory, AuditJournal.RECORD_SIZE * 2)) {
+            assertThat(journal.append(1, null, 1, AuditOutcome.CREATED, 1)).isTrue();
+            assertThat(journal.append(2, null, 2, AuditOutcome.CREATED, 1)).isTrue();
+
+            // Sin directorio no se puede abrir el segundo segmento: se descarta hasta la próxima escritura a disco
+            deleteRecursively(directory);
+            assertThat(journal.append(3, null, 3, AuditOutcome.CREATED, 1)).isFalse();
+            assertThat(journal.append(4, null, 4, AuditOutcome.CREATED, 1)).isFalse();
+            journal.flush();
+            assertThat(journal.append(5, null, 5, AuditOutcome.CREATED, 1)).isFalse();
+
+            Files.createDirectories(directory);
+            journal.flush();
+            assertThat(journal.append(6, null, 6, AuditOutcome.CREATED, 1)).isTrue();
+            journal.flush();
+            assertThat(journal.getDropped()).isEqualTo(3);
+        }
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournal.read(directory, records::add);
+        assertThat(records).extracting(AuditRecord::emailHash).containsExactly(6L);
+    }
+
+    @Test
+    void testOldSegmentsAreDeletedBeyondTheLimit(@TempDir Path tempDir) throws Exception {
+        try (AuditJournal journal = new AuditJournal(tempDir, AuditJournal.RECORD_SIZE * 10, 3)) {
+            for (int i = 0; i < 95; i++) {
+                journal.append(System.currentTimeMillis(), null, i, AuditOutcome.CREATED, 1);
+            }
+            journal.flush();
+        }
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournal.read(tempDir, records::add);
+        // Quedan el segmento actual (90 a 94) y los dos anteriores
+        assertThat(records).extracting(AuditRecord::emailHash).first().isEqualTo(70L);
+        assertThat(records).hasSize(25);
+
+        // Un nuevo inicio abre el segmento 11 y conserva solo los dos anteriores
+        new AuditJournal(tempDir, AuditJournal.RECORD_SIZE * 10, 3).close();
+        try (Stream<Path> segments = Files.list(tempDir)) {
+            assertThat(segments.map(path -> path.getFileName().toString()).sorted())
+                    .containsExactly("audit-000000000009.seg", "audit-000000000010.seg", "audit-000000000011.seg");
+        }
+    }
+
+    @Test
+    void testAcceptedAsyncRegistrationsAreAudited() throws Exception {
+        String email = "asincrono-" + UUID.randomUUID() + "@rodriguez.org";
+        String body = objectMapper.writeValueAsString(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+
+        mockMvc.perform(post("/api/users").header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isAccepted());
+        registrationAuditor.flush();
+
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournal.read(directory, record -> {
+            if (record.emailHash() == EmailNormalizer.hash(email)) {
+                records.add(record);
+            }
+        });
+        assertThat(records).extracting(AuditRecord::outcome).containsExactly(AuditOutcome.ACCEPTED);
+        assertThat(records.get(0).userId()).isNull();
+    }
+
+    @Test
+    void testRegistrationAttemptsAreExportedAsNdjson() throws Exception {
+        // Correos únicos: el directorio conserva los registros de ejecuciones anteriores
+        String suffix = UUID.randomUUID().toString();
+        String email = "auditoria-" + suffix + "@rodriguez.org";
+        String invalidEmail = "no-es-correo-" + suffix;
+        String body = objectMapper.writeValueAsString(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+        String invalid = objectMapper.writeValueAsString(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(invalidEmail)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(invalid))
+                .andExpect(status().isBadRequest());
+        registrationAuditor.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = AuditExportRunner.export(directory, out, objectMapper);
+        long emailHash = EmailNormalizer.hash(email);
+        long invalidHash = EmailNormalizer.hash(invalidEmail);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            long hash = node.get("emailHash").asLong();
+            if (hash == emailHash || hash == invalidHash) {
+                lines.add(node);
+            }
+        }
+
+        assertThat(exported).isGreaterThanOrEqualTo(3);
+        assertThat(lines).extracting(line -> line.get("outcome").asText())
+                .containsExactly("CREATED", "DUPLICATE", "INVALID");
+        assertThat(lines.get(0).get("emailHash").asLong()).isEqualTo(emailHash);
+        assertThat(lines.get(0).get("userId").isTextual()).isTrue();
+        assertThat(lines.get(1).get("emailHash").asLong()).isEqualTo(emailHash);
+        assertThat(lines.get(1).get("userId").isNull()).isTrue();
+        assertThat(lines.get(2).get("emailHash").asLong()).isEqualTo(invalidHash);
+        assertThat(lines).allSatisfy(line -> {
+            assertThat(line.get("latencyMicros").asLong()).isPositive();
+            assertThat(line.get("timestamp").asText()).isNotBlank();
+        });
+    }
+
+    private static void deleteRecursively(Path directory) throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
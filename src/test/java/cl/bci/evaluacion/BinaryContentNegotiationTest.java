@@ -0,0 +1,121 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de negociación de contenido CBOR y Smile: mismos campos que el contrato JSON, también en errores.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:binary-format-test")
+@AutoConfigureMockMvc
+class BinaryContentNegotiationTest {
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testRegisterUserWithCbor() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/users")
+                        .contentType(CBOR)
+                        .accept(CBOR)
+                        .content(cborMapper.writeValueAsBytes(request("cbor@rodriguez.org"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn();
+
+        JsonNode user = cborMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(user.get("email").asText()).isEqualTo("cbor@rodriguez.org");
+        assertThat(user.get("isactive").asBoolean()).isTrue();
+        assertThat(user.get("phones").get(0).get("contrycode").asText()).isEqualTo("57");
+        assertThat(user.has("last_login")).isTrue();
+        assertThat(user.get("token").asText()).isNotBlank();
+    }
+
+    @Test
+    void testSmileResponseMatchesJsonContract() throws Exception {
+        MvcResult smile = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(SMILE)
+                        .content(objectMapper.writeValueAsString(request("smile@rodriguez.org"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn();
+        MvcResult json = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("json@rodriguez.org"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        JsonNode smileUser = smileMapper.readTree(smile.getResponse().getContentAsByteArray());
+        JsonNode jsonUser = objectMapper.readTree(json.getResponse().getContentAsString());
+        assertThat(fieldNames(smileUser)).containsExactlyElementsOf(fieldNames(jsonUser));
+        // Fechas con el mismo formato que en JSON
+        assertThat(smileUser.get("created").getNodeType()).isEqualTo(jsonUser.get("created").getNodeType());
+    }
+
+    @Test
+    void testErrorBodyIsNegotiated() throws Exception {
+        byte[] body = cborMapper.writeValueAsBytes(request("duplicado@rodriguez.org"));
+        mockMvc.perform(post("/api/users").contentType(CBOR).accept(CBOR).content(body))
+                .andExpect(status().isCreated());
+
+        MvcResult duplicate = mockMvc.perform(post("/api/users").contentType(CBOR).accept(CBOR).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn();
+        assertThat(cborMapper.readTree(duplicate.getResponse().getContentAsByteArray()).get("mensaje").asText())
+                .isEqualTo("El correo ya registrado");
+
+        UserRequestDTO invalid = request("no-es-un-correo");
+        MvcResult validation = mockMvc.perform(post("/api/users")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(invalid)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn();
+        assertThat(smileMapper.readTree(validation.getResponse().getContentAsByteArray()).has("mensaje")).isTrue();
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package cl.bci.evaluacion;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Benchmark de carga masiva de usuarios sintéticos sobre H2 en archivo, según cantidad de hilos.
+ * Reporta usuarios por segundo y tamaño en disco.
+ * Ejecutar con: ./gradlew benchmark --tests '*BulkLoadBenchmark' -Dbenchmark.bulk.size=10000000 -Dbenchmark.bulk.threads=1,4,8
+ */
+@Tag("benchmark")
+class BulkLoadBenchmark {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkBulkLoad() throws Exception {
+        long size = Long.getLong("benchmark.bulk.size", 1_000_000L);
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.bulk.threads",
+                        "1," + Runtime.getRuntime().availableProcessors()).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        boolean packed = Boolean.getBoolean("benchmark.bulk.packed");
+
+        for (int threads : threadCounts) {
+            Path path = dataDir.resolve("bulk-" + threads);
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:file:" + path + ";CACHE_SIZE=65536");
+            dataSource.setUser("sa");
+
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+                BulkUserLoader.LoadResult result = new BulkUserLoader(dataSource)
+                        .threads(threads)
+                        .packedPhones(packed)
+                        .load(size);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SHUTDOWN COMPACT");
+                }
+                long bytes = Files.size(Path.of(path + ".mv.db"));
+                System.out.printf("bulk load: users=%d phones=%d threads=%d packed=%b time=%.1fs rate=%.0f users/s disk=%.1f MB%n",
+                        result.users(), result.phones(), threads, packed, result.millis() / 1000.0,
+                        result.usersPerSecond(), bytes / 1_048_576.0);
+            }
+        }
+    }
+}
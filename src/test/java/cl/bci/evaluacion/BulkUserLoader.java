@@ -0,0 +1,162 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import cl.bci.evaluacion.util.PhonePacker;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga masiva de usuarios sintéticos sobre el esquema de schema.sql con batches JDBC en paralelo:
+ * cada hilo toma bloques de índices y los inserta en su propia conexión, con un commit por bloque.
+ * Uso desde tests y benchmarks: {@code new BulkUserLoader(dataSource).load(10_000_000)}.
+ */
+final class BulkUserLoader {
+    private static final String INSERT_USER = "INSERT INTO users "
+            + "(id, name, email, email_hash, password, created, modified, last_login, token, is_active, phones_packed) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?)";
+    private static final String INSERT_PHONE = "INSERT INTO phones "
+            + "(id, number, citycode_id, citycode, countrycode_id, countrycode, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Resultado de una carga.
+     */
+    record LoadResult(long users, long phones, long millis) {
+        double usersPerSecond() {
+            return millis == 0 ? users : users * 1000.0 / millis;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final PhoneCodeDictionary phoneCodes;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 5_000;
+    private boolean packedPhones;
+    private long seed = 42;
+    private long offset;
+
+    BulkUserLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.phoneCodes = new PhoneCodeDictionary(dataSource, new ShardRouter(1),
+                SyntheticUsers.COUNTRY_CODES, SyntheticUsers.CITY_CODES);
+    }
+
+    BulkUserLoader threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    BulkUserLoader batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Guarda los teléfonos en users.phones_packed (phones.storage=packed) en vez de la tabla phones.
+     */
+    BulkUserLoader packedPhones(boolean packedPhones) {
+        this.packedPhones = packedPhones;
+        return this;
+    }
+
+    BulkUserLoader seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Primer índice a generar: permite agregar usuarios a una carga previa sin repetir correos.
+     */
+    BulkUserLoader offset(long offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Genera e inserta los usuarios [offset, offset + count).
+     *
+     * @param count Cantidad de usuarios
+     * @return Usuarios y teléfonos insertados, y duración
+     */
+    LoadResult load(long count) throws Exception {
+        // Códigos generados en el diccionario, como los agrega la aplicación al iniciar con phones.codes.*
+        phoneCodes.afterSingletonsInstantiated();
+        SyntheticUsers generator = new SyntheticUsers(seed);
+        AtomicLong nextBlock = new AtomicLong(offset);
+        AtomicLong phones = new AtomicLong();
+        long end = offset + count;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection();
+                         PreparedStatement users = connection.prepareStatement(INSERT_USER);
+                         PreparedStatement phoneRows = connection.prepareStatement(INSERT_PHONE)) {
+                        connection.setAutoCommit(false);
+                        for (long from = nextBlock.getAndAdd(batchSize); from < end; from = nextBlock.getAndAdd(batchSize)) {
+                            long to = Math.min(from + batchSize, end);
+                            for (long i = from; i < to; i++) {
+                                phones.addAndGet(addUser(generator.user(i), now, users, phoneRows));
+                            }
+                            users.executeBatch();
+                            phoneRows.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return new LoadResult(count, phones.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int addUser(SyntheticUsers.SyntheticUser user, Timestamp now, PreparedStatement users,
+                        PreparedStatement phoneRows) throws Exception {
+        users.setObject(1, user.id());
+        users.setString(2, user.name());
+        users.setString(3, user.email());
+        users.setLong(4, user.emailHash());
+        users.setString(5, SyntheticUsers.DUMMY_HASH);
+        users.setTimestamp(6, now);
+        users.setTimestamp(7, now);
+        users.setTimestamp(8, now);
+        users.setString(9, user.token());
+        users.setString(10, packedPhones ? PhonePacker.pack(user.phones()) : null);
+        users.addBatch();
+
+        if (!packedPhones) {
+            for (Phone phone : user.phones()) {
+                phoneRows.setObject(1, UUID.randomUUID());
+                phoneRows.setString(2, phone.getNumber());
+                phoneRows.setObject(3, phoneCodes.cities().idOf(phone.getCitycode()));
+                phoneRows.setString(4, phoneCodes.cities().textOf(phone.getCitycode()));
+                phoneRows.setObject(5, phoneCodes.countries().idOf(phone.getCountrycode()));
+                phoneRows.setString(6, phoneCodes.countries().textOf(phone.getCountrycode()));
+                phoneRows.setObject(7, user.id());
+                phoneRows.addBatch();
+            }
+        }
+        return user.phones().size();
+    }
+}
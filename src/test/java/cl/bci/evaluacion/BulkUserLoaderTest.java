@@ -0,0 +1,50 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del generador sintético y la carga masiva: datos deterministas y legibles por la aplicación.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk-load-test")
+class BulkUserLoaderTest {
+    private static final int USERS = 20_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testBulkLoadIsReadableByTheApplication() throws Exception {
+        BulkUserLoader.LoadResult result = new BulkUserLoader(dataSource).threads(4).batchSize(1_000).load(USERS);
+
+        assertThat(result.users()).isEqualTo(USERS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class)).isEqualTo(USERS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT email_hash) FROM users", Long.class)).isEqualTo(USERS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM phones", Long.class)).isEqualTo(result.phones());
+        assertThat(result.phones()).isBetween((long) USERS, 3L * USERS);
+
+        // Mismo índice y semilla, mismo usuario
+        SyntheticUsers.SyntheticUser sample = new SyntheticUsers(42).user(1234);
+        UserResponseDTO user = userService.findUser(userRepository.findByEmail(sample.email()).orElseThrow().getId());
+        assertThat(user.getName()).isEqualTo(sample.name());
+        assertThat(user.getPhones()).hasSize(sample.phones().size());
+    }
+}
@@ -0,0 +1,68 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de registros concurrentes del mismo correo sin single-flight (como entre instancias): los que pasan
+ * el chequeo a la vez chocan con uk_users_email_hash y deben recibir el error de correo duplicado, no un 500.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrent-registration-test",
+        "registration.single-flight.enabled=false"
+})
+class ConcurrentRegistrationTest {
+    private static final int REQUESTS = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void testConcurrentRegistrationsOfTheSameEmailFailAsDuplicates() throws Exception {
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email("carrera@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserResponseDTO>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.registerUser(request);
+                }));
+            }
+            start.countDown();
+        }
+
+        int created = 0;
+        for (Future<UserResponseDTO> result : results) {
+            try {
+                result.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(DuplicateEmailException.class);
+            }
+        }
+        assertThat(created).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.util.EmailNormalizer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Benchmark de inserción sostenida sobre H2 en archivo con la configuración del perfil durable.
+ * Reporta usuarios por segundo y tamaño en disco para cada volumen.
+ * Ejecutar con: ./gradlew benchmark -Dbenchmark.durable.sizes=1000000,10000000,50000000
+ */
+@Tag("benchmark")
+class DurableInsertBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+    // Hash BCrypt fijo: el benchmark mide la persistencia, no el cifrado
+    private static final String DUMMY_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkSustainedInserts() throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty("benchmark.durable.sizes", "1000000,10000000,50000000").split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .toArray();
+
+        for (long size : sizes) {
+            Path path = dataDir.resolve("bench-" + size);
+            String url = "jdbc:h2:file:" + path
+                    + ";CACHE_SIZE=65536;WRITE_DELAY=500;MAX_COMPACT_TIME=2000;AUTO_COMPACT_FILL_RATE=90";
+
+            long start = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+                connection.setAutoCommit(false);
+                insertUsers(connection, size);
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            long bytes = Files.size(Path.of(path + ".mv.db"));
+
+            System.out.printf("durable insert: users=%d time=%.1fs rate=%.0f users/s disk=%.1f MB (%.0f bytes/user)%n",
+                    size, seconds, size / seconds, bytes / 1_048_576.0, (double) bytes / size);
+        }
+    }
+
+    private void insertUsers(Connection connection, long size) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (id, name, email, email_hash, password, created, modified, last_login, token, is_active) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE)");
+             PreparedStatement phones = connection.prepareStatement(
+                     "INSERT INTO phones (id, number, citycode_id, countrycode_id, user_id) VALUES (?, ?, ?, ?, ?)")) {
+            // Diccionario de códigos: ciudad 9 y país 56, ambos con id 1
+            connection.createStatement().execute("INSERT INTO phone_city_codes (id, code) VALUES (1, '9')");
+            connection.createStatement().execute("INSERT INTO phone_country_codes (id, code) VALUES (1, '56')");
+            for (long i = 0; i < size; i++) {
+                UUID userId = UUID.randomUUID();
+                users.setObject(1, userId);
+                users.setString(2, "Usuario " + i);
+                String email = "usuario" + i + "@bench.cl";
+                users.setString(3, email);
+                users.setLong(4, EmailNormalizer.hash(email));
+                users.setString(5, DUMMY_HASH);
+                users.setTimestamp(6, now);
+                users.setTimestamp(7, now);
+                users.setTimestamp(8, now);
+                users.setString(9, "token-" + i);
+                users.addBatch();
+
+                phones.setObject(1, UUID.randomUUID());
+                phones.setString(2, String.valueOf(900_000_000L + i % 100_000_000L));
+                phones.setInt(3, 1);
+                phones.setInt(4, 1);
+                phones.setObject(5, userId);
+                phones.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0 || i == size - 1) {
+                    users.executeBatch();
+                    phones.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.SchemaPopulator;
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests del perfil durable: los datos deben sobrevivir a un reinicio de la aplicación y schema.sql debe
+ * migrar las bases creadas con versiones anteriores del esquema.
+ */
+class DurableProfileRestartTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testRegisteredUserSurvivesRestart() {
+        String path = dataDir.resolve("evaluacion").toString();
+
+        UUID userId;
+        try (ConfigurableApplicationContext context = start(path)) {
+            UserResponseDTO response = context.getBean(UserService.class).registerUser(request("juan@rodriguez.org"));
+            userId = response.getId();
+        }
+
+        // La base de datos debe haberse escrito en disco
+        assertThat(Files.exists(Path.of(path + ".mv.db"))).isTrue();
+
+        try (ConfigurableApplicationContext context = start(path)) {
+            Optional<User> user = context.getBean(UserRepository.class).findById(userId);
+            assertThat(user).isPresent();
+            assertThat(user.get().getEmail()).isEqualTo("juan@rodriguez.org");
+        }
+    }
+
+    @Test
+    void testSchemaMigratesUsersTableOfPreviousVersions() throws Exception {
+        String url = "jdbc:h2:file:" + dataDir.resolve("anterior");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // users sin phones_packed ni token_expires y con token obligatorio
+            statement.execute("CREATE TABLE users (id UUID PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, email_hash BIGINT NOT NULL, password VARCHAR(255) NOT NULL, "
+                    + "created TIMESTAMP NOT NULL, modified TIMESTAMP NOT NULL, last_login TIMESTAMP NOT NULL, "
+                    + "token VARCHAR(255) NOT NULL, is_active BOOLEAN NOT NULL DEFAULT TRUE, "
+                    + "CONSTRAINT uk_users_email_hash UNIQUE (email_hash))");
+            statement.execute("INSERT INTO users (id, name, email, email_hash, password, created, modified, last_login, token) "
+                    + "VALUES (RANDOM_UUID(), 'Anterior', 'anterior@rodriguez.org', 1, 'x', "
+                    + "TIMESTAMP '2024-01-01 10:00:00', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'token')");
+
+            // Vencimiento según jwt.expiration (2 horas). Dos veces: la migración es idempotente y no cambia
+            // los vencimientos ya asignados aunque cambie la propiedad
+            new SchemaPopulator(7_200_000).populate(connection);
+            new SchemaPopulator(86_400_000).populate(connection);
+
+            try (ResultSet rs = statement.executeQuery("SELECT token_expires, phones_packed FROM users")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getTimestamp(1)).isEqualTo(Timestamp.valueOf("2024-01-01 12:00:00"));
+                assertThat(rs.getString(2)).isNull();
+            }
+            // El barrido deja el token en null
+            assertThat(statement.executeUpdate("UPDATE users SET token = NULL, token_expires = NULL")).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testStartupMigratesTablesCreatedBeforeEmailHashAndPhoneCodes() throws Exception {
+        String path = dataDir.resolve("sin-email-hash").toString();
+        UUID userId = UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + path, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // users sin email_hash (ni columnas posteriores) y phones con los códigos solo como texto
+            statement.execute("CREATE TABLE users (id UUID PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, "
+                    + "created TIMESTAMP NOT NULL, modified TIMESTAMP NOT NULL, last_login TIMESTAMP NOT NULL, "
+                    + "token VARCHAR(255) NOT NULL, is_active BOOLEAN NOT NULL DEFAULT TRUE)");
+            statement.execute("CREATE TABLE phones (id UUID PRIMARY KEY, number VARCHAR(255) NOT NULL, "
+                    + "citycode VARCHAR(255) NOT NULL, countrycode VARCHAR(255) NOT NULL, user_id UUID NOT NULL, "
+                    + "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            statement.execute("INSERT INTO users (id, name, email, password, created, modified, last_login, token) "
+                    + "VALUES ('" + userId + "', 'Anterior', ' Anterior@Rodriguez.org', 'x', "
+                    + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'token')");
+            statement.execute("INSERT INTO phones (id, number, citycode, countrycode, user_id) "
+                    + "VALUES (RANDOM_UUID(), '1234567', '1', '999', '" + userId + "')");
+        }
+
+        try (ConfigurableApplicationContext context = start(path)) {
+            // Correo normalizado y con email_hash: se encuentra y el mismo correo con otra capitalización se rechaza
+            assertThat(context.getBean(UserRepository.class).existsByEmail("anterior@rodriguez.org")).isTrue();
+            UserService userService = context.getBean(UserService.class);
+            assertThatThrownBy(() -> userService.registerUser(request("ANTERIOR@rodriguez.org")))
+                    .isInstanceOf(DuplicateEmailException.class);
+
+            UserResponseDTO user = userService.findUser(userId);
+            assertThat(user.getEmail()).isEqualTo("anterior@rodriguez.org");
+            assertThat(user.getPhones()).singleElement().satisfies(phone -> {
+                assertThat(phone.getCitycode()).isEqualTo("1");
+                assertThat(phone.getCountrycode()).isEqualTo("999");
+            });
+
+            // Código conocido pasado a id; el desconocido queda como texto
+            Map<String, Object> phone = new JdbcTemplate(context.getBean(DataSource.class)).queryForMap(
+                    "SELECT citycode_id, citycode, countrycode_id, countrycode FROM phones");
+            assertThat(phone.get("CITYCODE_ID")).isEqualTo(context.getBean(PhoneCodeDictionary.class).cities().idOf("1"));
+            assertThat(phone.get("CITYCODE")).isNull();
+            assertThat(phone.get("COUNTRYCODE_ID")).isNull();
+            assertThat(phone.get("COUNTRYCODE")).isEqualTo("999");
+        }
+    }
+
+    @Test
+    void testEmailHashMigrationFailsOnEmailsThatCollideWhenNormalized() throws Exception {
+        String url = "jdbc:h2:file:" + dataDir.resolve("duplicados");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id UUID PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, "
+                    + "created TIMESTAMP NOT NULL, modified TIMESTAMP NOT NULL, last_login TIMESTAMP NOT NULL, "
+                    + "token VARCHAR(255) NOT NULL, is_active BOOLEAN NOT NULL DEFAULT TRUE)");
+            for (String email : List.of("juan@rodriguez.org", "Juan@Rodriguez.org")) {
+                statement.execute("INSERT INTO users (id, name, email, password, created, modified, last_login, token) "
+                        + "VALUES (RANDOM_UUID(), 'Juan', '" + email + "', 'x', "
+                        + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'token')");
+            }
+
+            assertThatThrownBy(() -> new SchemaPopulator(86_400_000).populate(connection))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("juan@rodriguez.org");
+
+            // Los correos no se modifican hasta resolver el duplicado
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users WHERE email = 'Juan@Rodriguez.org'")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(1);
+            }
+        }
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+    }
+
+    private ConfigurableApplicationContext start(String path) {
+        return new SpringApplicationBuilder(EvaluacionApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .properties("h2.durable.path=" + path)
+                .run();
+    }
+}
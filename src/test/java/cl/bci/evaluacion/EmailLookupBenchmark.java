@@ -0,0 +1,140 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.util.EmailNormalizer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark de búsqueda por correo: esquema anterior (email VARCHAR UNIQUE más idx_users_email)
+ * contra el actual (email_hash BIGINT UNIQUE y comparación del correo completo).
+ * Reporta tamaño de índices (diferencia de tamaño en disco contra la tabla sin índices de correo)
+ * y latencia p50/p99 de búsquedas puntuales.
+ * Ejecutar con: ./gradlew benchmark -Dbenchmark.email.size=10000000 -Dbenchmark.email.lookups=200000
+ */
+@Tag("benchmark")
+class EmailLookupBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String BASE_TABLE = "CREATE TABLE users (id BIGINT PRIMARY KEY, "
+            + "email VARCHAR(255) NOT NULL, email_hash BIGINT NOT NULL)";
+    private static final String[] LEGACY_INDEXES = {
+            "ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email)",
+            "CREATE INDEX idx_users_email ON users(email)"
+    };
+    private static final String[] HASH_INDEXES = {
+            "ALTER TABLE users ADD CONSTRAINT uk_users_email_hash UNIQUE (email_hash)"
+    };
+    private static final String LEGACY_LOOKUP = "SELECT id FROM users WHERE email = ?";
+    private static final String HASH_LOOKUP = "SELECT id FROM users WHERE email_hash = ? AND email = ?";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkEmailLookup() throws Exception {
+        long size = Long.getLong("benchmark.email.size", 10_000_000L);
+        int lookups = Integer.getInteger("benchmark.email.lookups", 200_000);
+
+        long baseline = load("base", size, new String[0]);
+        long legacy = load("legacy", size, LEGACY_INDEXES);
+        long hashed = load("hash", size, HASH_INDEXES);
+
+        System.out.printf("email lookup: users=%d base=%.1f MB%n", size, baseline / 1_048_576.0);
+        report("legacy (email UNIQUE + idx_users_email)", legacy - baseline, size,
+                measure("legacy", size, lookups, false));
+        report("hash (email_hash UNIQUE)", hashed - baseline, size,
+                measure("hash", size, lookups, true));
+    }
+
+    private long load(String name, long size, String[] indexes) throws Exception {
+        Path path = dataDir.resolve(name);
+        try (Connection connection = DriverManager.getConnection(url(path), "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(BASE_TABLE);
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (id, email, email_hash) VALUES (?, ?, ?)")) {
+                for (long i = 0; i < size; i++) {
+                    String email = email(i);
+                    insert.setLong(1, i);
+                    insert.setString(2, email);
+                    insert.setLong(3, EmailNormalizer.hash(email));
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            // Índices creados al final: el tamaño no depende del orden de inserción
+            for (String ddl : indexes) {
+                statement.execute(ddl);
+            }
+            connection.commit();
+            statement.execute("SHUTDOWN COMPACT");
+        }
+        return Files.size(Path.of(path + ".mv.db"));
+    }
+
+    private long[] measure(String name, long size, int lookups, boolean byHash) throws Exception {
+        long[] latencies = new long[lookups];
+        try (Connection connection = DriverManager.getConnection(url(dataDir.resolve(name)), "sa", "");
+             PreparedStatement lookup = connection.prepareStatement(byHash ? HASH_LOOKUP : LEGACY_LOOKUP)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Calentamiento: JIT y caché de páginas
+            for (int i = 0; i < lookups; i++) {
+                find(lookup, email(random.nextLong(size)), byHash);
+            }
+            for (int i = 0; i < lookups; i++) {
+                String email = email(random.nextLong(size));
+                long start = System.nanoTime();
+                find(lookup, email, byHash);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private void find(PreparedStatement lookup, String email, boolean byHash) throws Exception {
+        if (byHash) {
+            lookup.setLong(1, EmailNormalizer.hash(email));
+            lookup.setString(2, email);
+        } else {
+            lookup.setString(1, email);
+        }
+        try (ResultSet rs = lookup.executeQuery()) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Correo no encontrado: " + email);
+            }
+        }
+    }
+
+    private void report(String layout, long indexBytes, long size, long[] latencies) {
+        System.out.printf("email lookup: layout=%s index=%.1f MB (%.1f bytes/user) p50=%.1fus p99=%.1fus%n",
+                layout, indexBytes / 1_048_576.0, (double) indexBytes / size,
+                latencies[latencies.length / 2] / 1_000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1_000.0);
+    }
+
+    private static String url(Path path) {
+        return "jdbc:h2:file:" + path + ";CACHE_SIZE=65536";
+    }
+
+    private static String email(long i) {
+        return "usuario" + i + "@bench.cl";
+    }
+}
@@ -0,0 +1,113 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.GroupCommitWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark de group commit sobre H2 en archivo (perfil durable con write-delay 0, un commit = una escritura a disco).
+ * Compara una transacción por registro contra distintas ventanas de agrupación y reporta throughput y p99.
+ * Ejecutar con: ./gradlew benchmark --tests '*GroupCommitBenchmark' -Dbenchmark.group-commit.windows=1,2,5,10
+ */
+@Tag("benchmark")
+class GroupCommitBenchmark {
+    private static final String DUMMY_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkBatchWindows() throws Exception {
+        int users = Integer.getInteger("benchmark.group-commit.users", 50_000);
+        int threads = Integer.getInteger("benchmark.group-commit.threads", 64);
+        int maxItems = Integer.getInteger("benchmark.group-commit.max-items", 128);
+        long[] windows = Arrays.stream(System.getProperty("benchmark.group-commit.windows", "1,2,5,10").split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .toArray();
+
+        try (ConfigurableApplicationContext context = start("por-transaccion", false, 0, maxItems)) {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+            run("una transacción por registro", users, threads,
+                    user -> transactionTemplate.executeWithoutResult(status -> userRepository.save(user)));
+        }
+        for (long window : windows) {
+            try (ConfigurableApplicationContext context = start("ventana-" + window, true, window, maxItems)) {
+                GroupCommitWriter writer = context.getBean(GroupCommitWriter.class);
+                run("group commit ventana=" + window + "ms max=" + maxItems, users, threads, writer::write);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String name, boolean groupCommit, long windowMs, int maxItems) {
+        return new SpringApplicationBuilder(EvaluacionApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .properties("h2.durable.path=" + dataDir.resolve(name),
+                        "h2.durable.write-delay=0",
+                        "outbox.enabled=false",
+                        "registration.group-commit.enabled=" + groupCommit,
+                        "registration.group-commit.window-ms=" + windowMs,
+                        "registration.group-commit.max-items=" + maxItems)
+                .run();
+    }
+
+    private void run(String mode, int users, int threads, Consumer<User> write) throws Exception {
+        long[] latencies = new long[users];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = next.getAndIncrement(); i < users; i = next.getAndIncrement()) {
+                    User user = user("usuario" + i + "@bench.cl");
+                    long begin = System.nanoTime();
+                    write.accept(user);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: users=%d threads=%d rate=%.0f users/s p50=%.2f ms p99=%.2f ms%n",
+                mode, users, threads, users / seconds,
+                latencies[users / 2] / 1_000_000.0, latencies[(int) (users * 0.99)] / 1_000_000.0);
+    }
+
+    private static User user(String email) {
+        User user = User.builder()
+                .name("Usuario")
+                .email(email)
+                .password(DUMMY_HASH)
+                .token("token")
+                .phones(List.of(Phone.builder().number("912345678").citycode("9").countrycode("56").build()))
+                .build();
+        user.getPhones().forEach(phone -> phone.setUser(user));
+        return user;
+    }
+}
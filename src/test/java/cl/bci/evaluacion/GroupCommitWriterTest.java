@@ -0,0 +1,156 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.outbox.OutboxWriter;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.GroupCommitWriter;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests del group commit: batches concurrentes, aislamiento de la solicitud con correo duplicado y detención
+ * sin solicitudes colgadas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:group-commit-test",
+        "registration.group-commit.enabled=true",
+        "registration.group-commit.window-ms=20",
+        "registration.group-commit.max-items=32"
+})
+class GroupCommitWriterTest {
+
+    @Autowired
+    private GroupCommitWriter groupCommitWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PhoneCodeDictionary phoneCodes;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentWritesAreCommitted() {
+        List<CompletableFuture<User>> results = submitAll(List.of(
+                "uno@group.cl", "dos@group.cl", "tres@group.cl", "cuatro@group.cl", "cinco@group.cl"));
+
+        results.forEach(result -> assertThat(result.join().getId()).isNotNull());
+        assertThat(userRepository.count()).isEqualTo(5);
+        // Timestamps con la precisión de la columna: la respuesta coincide con una lectura posterior
+        User written = results.get(0).join();
+        assertThat(userRepository.findById(written.getId()).orElseThrow().getModified()).isEqualTo(written.getModified());
+    }
+
+    @Test
+    void testShutdownFailsPendingAndLaterWrites() throws Exception {
+        // Ventana larga: al detenerse el writer está juntando el batch en queue.poll
+        GroupCommitWriter writer = new GroupCommitWriter(jdbcTemplate, transactionTemplate, shardRouter, outboxWriter,
+                phoneCodes, true, 10_000, 32, 30_000);
+        CompletableFuture<User> pending = CompletableFuture.supplyAsync(() -> writer.write(user("detenido@group.cl")));
+        Thread.sleep(200);
+
+        writer.shutdown();
+
+        assertThat(pending).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> writer.write(user("tarde@group.cl")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Group commit detenido");
+        assertThat(userRepository.count()).isZero();
+    }
+
+    @Test
+    void testDuplicateOnlyFailsTheOffendingRequest() {
+        groupCommitWriter.write(user("existente@group.cl"));
+
+        List<String> emails = new ArrayList<>(List.of(
+                "a@group.cl", "b@group.cl", "existente@group.cl", "c@group.cl", "d@group.cl", "e@group.cl"));
+        List<CompletableFuture<User>> results = submitAll(emails);
+
+        for (int i = 0; i < emails.size(); i++) {
+            CompletableFuture<User> result = results.get(i);
+            if (emails.get(i).equals("existente@group.cl")) {
+                assertThat(result).failsWithin(Duration.ofSeconds(5))
+                        .withThrowableOfType(ExecutionException.class)
+                        .withCauseInstanceOf(DuplicateEmailException.class);
+            } else {
+                assertThat(result.join().getEmail()).isEqualTo(emails.get(i));
+            }
+        }
+        assertThat(userRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void testOtherViolationsAreNotReportedAsDuplicates() {
+        User invalid = user("sin-nombre@group.cl");
+        invalid.setName(null);
+
+        List<CompletableFuture<User>> results = submitAll(List.of("valido@group.cl"));
+        assertThatThrownBy(() -> groupCommitWriter.write(invalid))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateEmailException.class);
+
+        assertThat(results.get(0).join().getEmail()).isEqualTo("valido@group.cl");
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    private List<CompletableFuture<User>> submitAll(List<String> emails) {
+        ExecutorService executor = Executors.newFixedThreadPool(emails.size());
+        try {
+            return emails.stream()
+                    .map(email -> CompletableFuture.supplyAsync(() -> groupCommitWriter.write(user(email)), executor))
+                    .toList();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static User user(String email) {
+        User user = User.builder()
+                .name("Group Commit")
+                .email(email)
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK")
+                .token("token")
+                .phones(List.of(Phone.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build();
+        user.getPhones().forEach(phone -> phone.setUser(user));
+        return user;
+    }
+}
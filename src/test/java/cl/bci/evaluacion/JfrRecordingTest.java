@@ -0,0 +1,90 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.monitoring.JfrEndpoint;
+import cl.bci.evaluacion.monitoring.JfrStageSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la grabación JFR: con umbral 0 cada etapa del registro queda en la grabación descargada.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jfr-test",
+        "jfr.enabled=true",
+        "jfr.threshold-ms=0"
+})
+@AutoConfigureMockMvc
+class JfrRecordingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JfrEndpoint jfrEndpoint;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRegistrationStagesAreRecorded() throws Exception {
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Jfr Rodriguez")
+                .email("jfr@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        long dumpsBefore = countTempDumps();
+        WebEndpointResponse<Resource> response = jfrEndpoint.dump();
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path file = tempDir.resolve("registro.jfr");
+        try (var in = response.getBody().getInputStream()) {
+            Files.copy(in, file);
+        }
+        // El archivo temporal del volcado se elimina al cerrar el stream
+        assertThat(countTempDumps()).isEqualTo(dumpsBefore);
+
+        assertThat(JfrStageSummary.summarize(file))
+                .extracting(JfrStageSummary.StageStats::stage)
+                .contains("Validation", "EmailCheck", "PasswordHash", "JwtSign", "DbFlush", "Serialization");
+    }
+
+    private static long countTempDumps() throws IOException {
+        try (var files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(path -> path.getFileName().toString().matches("evaluacion-.*\\.jfr")).count();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.outbox.InMemoryOutboxSink;
+import cl.bci.evaluacion.outbox.OutboxMessage;
+import cl.bci.evaluacion.outbox.OutboxWriter;
+import cl.bci.evaluacion.repository.OutboxEventRepository;
+import cl.bci.evaluacion.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del outbox transaccional: el evento se escribe con el usuario y se despacha en segundo plano.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-test",
+        "outbox.poll-interval-ms=50",
+        "outbox.sink=memory"
+})
+class OutboxDispatcherTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testUserRegisteredEventIsDispatched() throws Exception {
+        UserResponseDTO user = userService.registerUser(UserRequestDTO.builder()
+                .name("Outbox Rodriguez")
+                .email("outbox@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build());
+
+        Optional<OutboxMessage> message = Optional.empty();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (message.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            message = sink.getMessages().stream()
+                    .filter(m -> m.aggregateId().equals(user.getId()))
+                    .findFirst();
+        }
+
+        assertThat(message).isPresent();
+        assertThat(message.get().eventType()).isEqualTo(OutboxWriter.USER_REGISTERED);
+        assertThat(message.get().payload()).contains("outbox@rodriguez.org");
+        // Las filas publicadas se eliminan del outbox
+        assertThat(outboxEventRepository.findAll())
+                .noneMatch(event -> event.getAggregateId().equals(user.getId()));
+        assertThat(meterRegistry.find("outbox.dispatch.lag").timer()).isNotNull();
+        assertThat(meterRegistry.find("outbox.dispatch.batch.size").summary().count()).isPositive();
+    }
+}
@@ -0,0 +1,56 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.outbox.OutboxDispatcher;
+import cl.bci.evaluacion.outbox.OutboxSink;
+import cl.bci.evaluacion.repository.OutboxEventRepository;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del outbox sin sink configurado (valor por defecto): los eventos no se despachan ni se eliminan.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-without-sink-test",
+        "outbox.poll-interval-ms=50"
+})
+class OutboxWithoutSinkTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testEventsStayInTheOutboxWithoutSink() throws Exception {
+        UserResponseDTO user = userService.registerUser(UserRequestDTO.builder()
+                .name("Outbox Rodriguez")
+                .email("sin-sink@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+
+        Thread.sleep(200);
+        outboxDispatcher.dispatch();
+
+        assertThat(applicationContext.getBeansOfType(OutboxSink.class)).isEmpty();
+        assertThat(outboxEventRepository.findAll())
+                .anyMatch(event -> event.getAggregateId().equals(user.getId()));
+    }
+}
@@ -0,0 +1,179 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Benchmark del diccionario de códigos de teléfono: los mismos teléfonos (distribución de SyntheticUsers) con
+ * countrycode y citycode como VARCHAR en cada fila (esquema anterior) y como id del diccionario (schema.sql).
+ * Reporta, por 1M de teléfonos, el espacio de la tabla y de un índice por (país, ciudad) según DISK_SPACE_USED
+ * de H2, y el heap retenido por los Phone leídos: un String por columna y fila contra las instancias canónicas.
+ * Ejecutar con: ./gradlew benchmark -Dbenchmark.phone-codes.size=1000000
+ */
+@Tag("benchmark")
+class PhoneCodeBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+    private static final double MB = 1_048_576.0;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkPhoneCodeDictionary() throws Exception {
+        int size = Integer.getInteger("benchmark.phone-codes.size", 1_000_000);
+        double perMillion = 1_000_000.0 / size;
+
+        String url = "jdbc:h2:file:" + dataDir.resolve("phone-codes") + ";CACHE_SIZE=65536";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            statement.execute("CREATE TABLE phones_varchar (id UUID PRIMARY KEY, number VARCHAR(255) NOT NULL, "
+                    + "citycode VARCHAR(255) NOT NULL, countrycode VARCHAR(255) NOT NULL, user_id UUID NOT NULL)");
+            statement.execute("CREATE INDEX idx_phones_varchar_user_id ON phones_varchar(user_id)");
+            statement.execute("CREATE TABLE phones_dictionary (id UUID PRIMARY KEY, number VARCHAR(255) NOT NULL, "
+                    + "citycode_id INT NOT NULL, countrycode_id INT NOT NULL, user_id UUID NOT NULL)");
+            statement.execute("CREATE INDEX idx_phones_dictionary_user_id ON phones_dictionary(user_id)");
+
+            // Los códigos generados son códigos conocidos (phones.codes.*): todos se guardan como id
+            PhoneCodeDictionary phoneCodes = new PhoneCodeDictionary(new DriverManagerDataSource(url, "sa", ""),
+                    new ShardRouter(1), SyntheticUsers.COUNTRY_CODES, SyntheticUsers.CITY_CODES);
+            phoneCodes.afterSingletonsInstantiated();
+            insertPhones(connection, phoneCodes, size);
+
+            long varcharTable = diskSpace(statement, "PHONES_VARCHAR");
+            long dictionaryTable = diskSpace(statement, "PHONES_DICTIONARY");
+            statement.execute("CREATE INDEX idx_phones_varchar_codes ON phones_varchar(countrycode, citycode)");
+            statement.execute("CREATE INDEX idx_phones_dictionary_codes ON phones_dictionary(countrycode_id, citycode_id)");
+            long varcharIndex = diskSpace(statement, "PHONES_VARCHAR") - varcharTable;
+            long dictionaryIndex = diskSpace(statement, "PHONES_DICTIONARY") - dictionaryTable;
+
+            long varcharHeap = retainedHeap(() -> readVarchar(connection, size));
+            long dictionaryHeap = retainedHeap(() -> readDictionary(connection, phoneCodes, size));
+
+            System.out.printf("phone codes: phones=%d countries=%d cities=%d%n",
+                    size, phoneCodes.countries().size(), phoneCodes.cities().size());
+            System.out.printf("phone codes per 1M phones: varchar table=%.1f MB index=%.1f MB heap=%.1f MB | "
+                            + "dictionary table=%.1f MB index=%.1f MB heap=%.1f MB%n",
+                    varcharTable * perMillion / MB, varcharIndex * perMillion / MB, varcharHeap * perMillion / MB,
+                    dictionaryTable * perMillion / MB, dictionaryIndex * perMillion / MB, dictionaryHeap * perMillion / MB);
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    private void insertPhones(Connection connection, PhoneCodeDictionary phoneCodes, int size) throws Exception {
+        SyntheticUsers generator = new SyntheticUsers(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement varchar = connection.prepareStatement(
+                "INSERT INTO phones_varchar (id, number, citycode, countrycode, user_id) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement dictionary = connection.prepareStatement(
+                     "INSERT INTO phones_dictionary (id, number, citycode_id, countrycode_id, user_id) VALUES (?, ?, ?, ?, ?)")) {
+            int phones = 0;
+            for (long i = 0; phones < size; i++) {
+                SyntheticUsers.SyntheticUser user = generator.user(i);
+                for (Phone phone : user.phones()) {
+                    if (phones == size) {
+                        break;
+                    }
+                    UUID id = UUID.randomUUID();
+                    varchar.setObject(1, id);
+                    varchar.setString(2, phone.getNumber());
+                    varchar.setString(3, phone.getCitycode());
+                    varchar.setString(4, phone.getCountrycode());
+                    varchar.setObject(5, user.id());
+                    varchar.addBatch();
+                    dictionary.setObject(1, id);
+                    dictionary.setString(2, phone.getNumber());
+                    dictionary.setInt(3, phoneCodes.cities().idOf(phone.getCitycode()));
+                    dictionary.setInt(4, phoneCodes.countries().idOf(phone.getCountrycode()));
+                    dictionary.setObject(5, user.id());
+                    dictionary.addBatch();
+                    if (++phones % BATCH_SIZE == 0) {
+                        varchar.executeBatch();
+                        dictionary.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            varchar.executeBatch();
+            dictionary.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static Phone[] readVarchar(Connection connection, int size) throws Exception {
+        Phone[] phones = new Phone[size];
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT number, citycode, countrycode FROM phones_varchar")) {
+            for (int i = 0; rs.next(); i++) {
+                phones[i] = Phone.builder()
+                        .number(rs.getString(1))
+                        .citycode(rs.getString(2))
+                        .countrycode(rs.getString(3))
+                        .build();
+            }
+        }
+        return phones;
+    }
+
+    private static Phone[] readDictionary(Connection connection, PhoneCodeDictionary phoneCodes, int size) throws Exception {
+        Phone[] phones = new Phone[size];
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT number, citycode_id, countrycode_id FROM phones_dictionary")) {
+            for (int i = 0; rs.next(); i++) {
+                phones[i] = Phone.builder()
+                        .number(rs.getString(1))
+                        .citycode(phoneCodes.cities().codeOf(rs.getInt(2)))
+                        .countrycode(phoneCodes.countries().codeOf(rs.getInt(3)))
+                        .build();
+            }
+        }
+        return phones;
+    }
+
+    private static long diskSpace(Statement statement, String table) throws Exception {
+        try (ResultSet rs = statement.executeQuery("SELECT DISK_SPACE_USED('" + table + "')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private interface PhoneReader {
+        Phone[] read() throws Exception;
+    }
+
+    /**
+     * Heap usado después de GC con los teléfonos leídos, menos el heap usado antes de leerlos.
+     */
+    private static long retainedHeap(PhoneReader reader) throws Exception {
+        long before = usedHeapAfterGc();
+        Phone[] phones = reader.read();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(phones);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
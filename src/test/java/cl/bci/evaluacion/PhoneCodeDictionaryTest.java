@@ -0,0 +1,126 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del diccionario de códigos de teléfono: ids enteros en phones para los códigos conocidos, texto para
+ * los demás, instancias canónicas en los DTO y códigos configurados agregados al iniciar.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:phone-code-dictionary-test")
+class PhoneCodeDictionaryTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PhoneCodeDictionary phoneCodes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testKnownCodesStoreDictionaryIdsAndShareCodeInstances() {
+        UserResponseDTO first = register("diccionario1@rodriguez.org", "8765432", "9", "56");
+        UserResponseDTO second = register("diccionario2@rodriguez.org", "7654321", "9", "56");
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT citycode_id, citycode, countrycode_id, countrycode FROM phones WHERE user_id = ?", first.getId());
+        assertThat(row.get("CITYCODE_ID")).isEqualTo(phoneCodes.cities().idOf("9"));
+        assertThat(row.get("COUNTRYCODE_ID")).isEqualTo(phoneCodes.countries().idOf("56"));
+        assertThat(row.get("CITYCODE")).isNull();
+        assertThat(row.get("COUNTRYCODE")).isNull();
+
+        // Códigos leídos de filas distintas: misma instancia de String
+        PhoneDTO firstPhone = userService.findUser(first.getId()).getPhones().get(0);
+        PhoneDTO secondPhone = userService.findUser(second.getId()).getPhones().get(0);
+        assertThat(firstPhone.getCitycode()).isEqualTo("9").isSameAs(secondPhone.getCitycode());
+        assertThat(firstPhone.getCountrycode()).isEqualTo("56").isSameAs(secondPhone.getCountrycode());
+    }
+
+    @Test
+    void testUnknownCodesAreStoredAsTextWithoutGrowingTheDictionary() {
+        int countries = phoneCodes.countries().size();
+        UserResponseDTO user = register("desconocido@rodriguez.org", "1234567", "88", "+580");
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT citycode_id, citycode, countrycode_id, countrycode FROM phones WHERE user_id = ?", user.getId());
+        assertThat(row.get("CITYCODE_ID")).isNull();
+        assertThat(row.get("CITYCODE")).isEqualTo("88");
+        assertThat(row.get("COUNTRYCODE_ID")).isNull();
+        assertThat(row.get("COUNTRYCODE")).isEqualTo("+580");
+        assertThat(phoneCodes.countries().size()).isEqualTo(countries);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM phone_country_codes WHERE code = '+580'", Integer.class)).isZero();
+
+        PhoneDTO phone = userService.findUser(user.getId()).getPhones().get(0);
+        assertThat(phone.getCitycode()).isEqualTo("88");
+        assertThat(phone.getCountrycode()).isEqualTo("+580");
+    }
+
+    @Test
+    void testCodesAddedByAnotherProcessAreLoadedOnDemand() {
+        int id = phoneCodes.cities().idOf("9") + 100;
+        jdbcTemplate.update("INSERT INTO phone_city_codes (id, code) VALUES (?, ?)", id, "externo");
+
+        assertThat(phoneCodes.cities().codeOf(id)).isEqualTo("externo");
+        assertThat(phoneCodes.cities().idOf("externo")).isEqualTo(id);
+    }
+
+    @Test
+    void testConfiguredCodesAreAddedAndStoredTextIsEncoded() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:phone-code-seed-test;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate seedTemplate = new JdbcTemplate(dataSource);
+        seedTemplate.execute("CREATE TABLE phone_country_codes (id INT PRIMARY KEY, code VARCHAR(255) NOT NULL UNIQUE)");
+        seedTemplate.execute("CREATE TABLE phone_city_codes (id INT PRIMARY KEY, code VARCHAR(255) NOT NULL UNIQUE)");
+        seedTemplate.execute("CREATE TABLE phones (id UUID PRIMARY KEY, number VARCHAR(255) NOT NULL, "
+                + "citycode_id INT, citycode VARCHAR(255), countrycode_id INT, countrycode VARCHAR(255))");
+        // Código ya guardado en la tabla (por ejemplo por una versión anterior) y teléfono guardado con texto
+        seedTemplate.update("INSERT INTO phone_country_codes (id, code) VALUES (1, '57')");
+        seedTemplate.update("INSERT INTO phones (id, number, citycode, countrycode) VALUES (RANDOM_UUID(), '1234567', '2', '56')");
+
+        PhoneCodeDictionary seeded = new PhoneCodeDictionary(dataSource, new ShardRouter(1), List.of("56", "57"), List.of("2"));
+        seeded.afterSingletonsInstantiated();
+
+        assertThat(seeded.countries().idOf("57")).isEqualTo(1);
+        assertThat(seeded.countries().idOf("56")).isEqualTo(2);
+        assertThat(seeded.cities().idOf("2")).isEqualTo(1);
+        assertThat(seedTemplate.queryForMap("SELECT citycode_id, citycode, countrycode_id, countrycode FROM phones"))
+                .containsEntry("CITYCODE_ID", 1)
+                .containsEntry("CITYCODE", null)
+                .containsEntry("COUNTRYCODE_ID", 2)
+                .containsEntry("COUNTRYCODE", null);
+
+        // Al reiniciar con la misma configuración no se agregan filas ni cambian los ids
+        PhoneCodeDictionary restarted = new PhoneCodeDictionary(dataSource, new ShardRouter(1), List.of("56", "57"), List.of("2"));
+        restarted.afterSingletonsInstantiated();
+        assertThat(restarted.countries().idOf("56")).isEqualTo(2);
+        assertThat(seedTemplate.queryForObject("SELECT COUNT(*) FROM phone_country_codes", Integer.class)).isEqualTo(2);
+        seedTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private UserResponseDTO register(String email, String number, String citycode, String countrycode) {
+        return userService.registerUser(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number(number)
+                        .citycode(new String(citycode)).countrycode(new String(countrycode)).build()))
+                .build());
+    }
+}
@@ -0,0 +1,174 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.util.EmailNormalizer;
+import cl.bci.evaluacion.util.PhonePacker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark de almacenamiento de teléfonos: tabla phones (una fila por teléfono) contra la columna
+ * users.phones_packed. Reporta costo de inserción, latencia de lectura p50/p99 y bytes en disco por usuario.
+ * Ejecutar con: ./gradlew benchmark -Dbenchmark.phones.size=1000000 -Dbenchmark.phones.per-user=2
+ */
+@Tag("benchmark")
+class PhoneStorageBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+    private static final int LOOKUPS = 100_000;
+    // Hash BCrypt fijo: el benchmark mide la persistencia, no el cifrado
+    private static final String DUMMY_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK";
+    private static final String TABLE_READ = "SELECT u.*, p.number, p.citycode_id, p.countrycode_id FROM users u "
+            + "LEFT JOIN phones p ON p.user_id = u.id WHERE u.id = ?";
+    private static final String PACKED_READ = "SELECT * FROM users WHERE id = ?";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void benchmarkPhoneStorage() throws Exception {
+        int size = Integer.getInteger("benchmark.phones.size", 1_000_000);
+        int perUser = Integer.getInteger("benchmark.phones.per-user", 2);
+
+        for (boolean packed : new boolean[] {false, true}) {
+            Path path = dataDir.resolve(packed ? "packed" : "table");
+            String url = "jdbc:h2:file:" + path + ";CACHE_SIZE=65536";
+            UUID[] ids = new UUID[size];
+
+            long start = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                 Statement statement = connection.createStatement()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+                connection.setAutoCommit(false);
+                insertUsers(connection, ids, perUser, packed);
+                statement.execute("SHUTDOWN COMPACT");
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            long bytes = Files.size(Path.of(path + ".mv.db"));
+
+            long[] latencies = readUsers(url, ids, packed);
+            System.out.printf("phone storage: mode=%s users=%d phones/user=%d insert=%.0f users/s "
+                            + "read p50=%.1fus p99=%.1fus disk=%.1f MB (%.0f bytes/user)%n",
+                    packed ? "packed" : "table", size, perUser, size / seconds,
+                    latencies[latencies.length / 2] / 1_000.0,
+                    latencies[(int) (latencies.length * 0.99)] / 1_000.0,
+                    bytes / 1_048_576.0, (double) bytes / size);
+        }
+    }
+
+    private void insertUsers(Connection connection, UUID[] ids, int perUser, boolean packed) throws Exception {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (id, name, email, email_hash, password, created, modified, last_login, token, "
+                        + "is_active, phones_packed) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?)");
+             PreparedStatement phones = connection.prepareStatement(
+                     "INSERT INTO phones (id, number, citycode_id, countrycode_id, user_id) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement cityCodes = connection.prepareStatement(
+                     "INSERT INTO phone_city_codes (id, code) VALUES (?, ?)")) {
+            // Diccionario de códigos: país 57 con id 1 y ciudades 1..perUser con id igual al código
+            connection.createStatement().execute("INSERT INTO phone_country_codes (id, code) VALUES (1, '57')");
+            for (int j = 1; j <= perUser; j++) {
+                cityCodes.setInt(1, j);
+                cityCodes.setString(2, String.valueOf(j));
+                cityCodes.executeUpdate();
+            }
+            for (int i = 0; i < ids.length; i++) {
+                UUID userId = UUID.randomUUID();
+                ids[i] = userId;
+                List<Phone> userPhones = new ArrayList<>(perUser);
+                for (int j = 0; j < perUser; j++) {
+                    userPhones.add(Phone.builder()
+                            .number(String.valueOf(1_000_000 + i + j))
+                            .citycode(String.valueOf(j + 1))
+                            .countrycode("57")
+                            .build());
+                }
+
+                String email = "usuario" + i + "@bench.cl";
+                users.setObject(1, userId);
+                users.setString(2, "Usuario " + i);
+                users.setString(3, email);
+                users.setLong(4, EmailNormalizer.hash(email));
+                users.setString(5, DUMMY_HASH);
+                users.setTimestamp(6, now);
+                users.setTimestamp(7, now);
+                users.setTimestamp(8, now);
+                users.setString(9, "token-" + i);
+                users.setString(10, packed ? PhonePacker.pack(userPhones) : null);
+                users.addBatch();
+
+                if (!packed) {
+                    for (Phone phone : userPhones) {
+                        phones.setObject(1, UUID.randomUUID());
+                        phones.setString(2, phone.getNumber());
+                        phones.setInt(3, Integer.parseInt(phone.getCitycode()));
+                        phones.setInt(4, 1);
+                        phones.setObject(5, userId);
+                        phones.addBatch();
+                    }
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    users.executeBatch();
+                    phones.executeBatch();
+                    connection.commit();
+                }
+            }
+            users.executeBatch();
+            phones.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private long[] readUsers(String url, UUID[] ids, boolean packed) throws Exception {
+        long[] latencies = new long[LOOKUPS];
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement read = connection.prepareStatement(packed ? PACKED_READ : TABLE_READ)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Calentamiento: JIT y caché de páginas
+            for (int i = 0; i < LOOKUPS; i++) {
+                readUser(read, ids[random.nextInt(ids.length)], packed);
+            }
+            for (int i = 0; i < LOOKUPS; i++) {
+                UUID id = ids[random.nextInt(ids.length)];
+                long start = System.nanoTime();
+                readUser(read, id, packed);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private int readUser(PreparedStatement read, UUID id, boolean packed) throws Exception {
+        read.setObject(1, id);
+        int phones = 0;
+        try (ResultSet rs = read.executeQuery()) {
+            while (rs.next()) {
+                // El modo packed incluye el costo de desempaquetar
+                phones += packed ? PhonePacker.unpack(rs.getString("phones_packed")).size() : 1;
+            }
+        }
+        if (phones == 0) {
+            throw new IllegalStateException("Usuario sin teléfonos: " + id);
+        }
+        return phones;
+    }
+}
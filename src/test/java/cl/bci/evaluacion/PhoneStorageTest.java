@@ -0,0 +1,107 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import cl.bci.evaluacion.service.PhoneStorage;
+import cl.bci.evaluacion.service.PhoneStorageMigrator;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests del modo de teléfonos empaquetados y de la migración entre modos.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:phone-storage-test",
+        "phones.storage=packed"
+})
+class PhoneStorageTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PhoneCodeDictionary phoneCodes;
+
+    @Test
+    void testPackedPhonesRoundTripAndMigration() {
+        UserResponseDTO created = userService.registerUser(UserRequestDTO.builder()
+                .name("Packed Rodriguez")
+                .email("packed@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build(),
+                        PhoneDTO.builder().number("9876543").citycode("2").countrycode("56").build()
+                ))
+                .build());
+
+        // Sin filas en phones: los teléfonos quedan en la columna empaquetada
+        assertThat(countPhones()).isZero();
+        assertThat(userService.findUser(created.getId()).getPhones())
+                .extracting(PhoneDTO::getNumber, PhoneDTO::getCitycode, PhoneDTO::getCountrycode)
+                .containsExactly(
+                        tuple("1234567", "1", "57"),
+                        tuple("9876543", "2", "56"));
+
+        // packed -> table: las filas vuelven a phones y la lectura cae al join
+        new PhoneStorageMigrator(jdbcTemplate, transactionTemplate, shardRouter, phoneCodes, PhoneStorage.TABLE, 100).migrate();
+        assertThat(countPhones()).isEqualTo(2);
+        assertThat(userService.findUser(created.getId()).getPhones())
+                .extracting(PhoneDTO::getNumber)
+                .containsExactlyInAnyOrder("1234567", "9876543");
+
+        // table -> packed
+        new PhoneStorageMigrator(jdbcTemplate, transactionTemplate, shardRouter, phoneCodes, PhoneStorage.PACKED, 100).migrate();
+        assertThat(countPhones()).isZero();
+        assertThat(userService.findUser(created.getId()).getPhones())
+                .extracting(PhoneDTO::getNumber)
+                .containsExactlyInAnyOrder("1234567", "9876543");
+    }
+
+    @Test
+    void testPackedPhonesHaveNoCountOrLengthLimit() {
+        // La columna es CLOB: el modo packed admite los mismos teléfonos que la tabla phones
+        List<PhoneDTO> phones = IntStream.range(0, 200)
+                .mapToObj(i -> PhoneDTO.builder()
+                        .number("+56 9 " + "1".repeat(40) + i)
+                        .citycode("9")
+                        .countrycode("56")
+                        .build())
+                .toList();
+        UserResponseDTO created = userService.registerUser(UserRequestDTO.builder()
+                .name("Many Rodriguez")
+                .email("many@rodriguez.org")
+                .password("SecurePass123")
+                .phones(phones)
+                .build());
+
+        assertThat(userService.findUser(created.getId()).getPhones())
+                .extracting(PhoneDTO::getNumber)
+                .containsExactlyElementsOf(phones.stream().map(PhoneDTO::getNumber).toList());
+    }
+
+    private Integer countPhones() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM phones", Integer.class);
+    }
+}
@@ -0,0 +1,210 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.PhonesRequestDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.monitoring.SqlStatementCounter;
+import cl.bci.evaluacion.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de actualización de teléfonos por diferencia (PATCH /phones y PUT del perfil) y su cantidad de sentencias.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:phone-update-test")
+@AutoConfigureMockMvc
+class PhoneUpdateTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testPhoneDiffStatementCount() {
+        UserResponseDTO user = register("diff@rodriguez.org", List.of(
+                phone("1111111", "1", "57"), phone("2222222", "2", "57"), phone("3333333", "9", "56")));
+        UUID kept = phoneId(user.getId(), "1111111");
+
+        // Se conserva 1111111, se eliminan 2222222 y 3333333, se agrega 4444444
+        SqlStatementCounter.reset();
+        UserResponseDTO updated = userService.updatePhones(user.getId(), "diff@rodriguez.org", List.of(
+                phone("1111111", "1", "57"), phone("4444444", "4", "57")));
+        SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+        SqlStatementCounter.reset();
+
+        assertThat(counts.count("select")).as(counts.toString()).isEqualTo(1);
+        assertThat(counts.count("insert", "phones")).as(counts.toString()).isEqualTo(1);
+        assertThat(counts.count("delete", "phones")).as(counts.toString()).isEqualTo(1);
+        assertThat(counts.count("update", "users")).as(counts.toString()).isEqualTo(1);
+        assertThat(counts.total()).as(counts.toString()).isEqualTo(4);
+
+        assertThat(updated.getPhones()).extracting(PhoneDTO::getNumber).containsExactlyInAnyOrder("1111111", "4444444");
+        assertThat(phoneId(user.getId(), "1111111")).isEqualTo(kept);
+        assertThat(updated.getModified()).isAfter(user.getModified());
+    }
+
+    @Test
+    void testUnchangedPhonesIssueNoWrites() {
+        UserResponseDTO user = register("igual@rodriguez.org", List.of(phone("1111111", "1", "57"), phone("2222222", "2", "57")));
+
+        SqlStatementCounter.reset();
+        UserResponseDTO updated = userService.updatePhones(user.getId(), "igual@rodriguez.org", List.of(
+                phone("2222222", "2", "57"), phone("1111111", "1", "57"), phone("1111111", "1", "57")));
+        SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+        SqlStatementCounter.reset();
+
+        assertThat(counts.total()).as(counts.toString()).isEqualTo(1);
+        assertThat(updated.getModified()).isEqualTo(userService.findUser(user.getId()).getModified());
+    }
+
+    @Test
+    void testPatchPhonesEndpoint() throws Exception {
+        UserResponseDTO user = register("patch@rodriguez.org", List.of(phone("1111111", "1", "57")));
+
+        mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PhonesRequestDTO(List.of(phone("5555555", "5", "56"))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phones.length()").value(1))
+                .andExpect(jsonPath("$.phones[0].number").value("5555555"));
+
+        mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PhonesRequestDTO(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Al menos un teléfono es requerido"));
+    }
+
+    @Test
+    void testPutReplacesProfileButNotEmail() throws Exception {
+        UserResponseDTO user = register("perfil@rodriguez.org", List.of(phone("1111111", "1", "57")));
+        UserRequestDTO profile = UserRequestDTO.builder()
+                .name("Juan Pablo Rodriguez")
+                .email("Perfil@Rodriguez.org")
+                .password("OtraClave456")
+                .phones(List.of(phone("1111111", "1", "57"), phone("6666666", "6", "57")))
+                .build();
+
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(profile)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Juan Pablo Rodriguez"))
+                .andExpect(jsonPath("$.phones.length()").value(2));
+
+        profile.setEmail("otro@rodriguez.org");
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(profile)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("El correo no se puede modificar"));
+    }
+
+    @Test
+    void testUpdatesRequireTheUsersOwnToken() throws Exception {
+        UserResponseDTO user = register("duenio@rodriguez.org", List.of(phone("1111111", "1", "57")));
+        UserResponseDTO other = register("otro.duenio@rodriguez.org", List.of(phone("2222222", "2", "57")));
+        String body = objectMapper.writeValueAsString(new PhonesRequestDTO(List.of(phone("7777777", "7", "57"))));
+
+        mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"))
+                .andExpect(jsonPath("$.mensaje").value("Token requerido"));
+        mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken() + "x")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.mensaje").value("Token inválido"));
+        mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + other.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.mensaje").value("El token no corresponde al usuario"));
+
+        UserRequestDTO profile = UserRequestDTO.builder()
+                .name("Intruso")
+                .email("duenio@rodriguez.org")
+                .password("OtraClave456")
+                .phones(List.of(phone("1111111", "1", "57")))
+                .build();
+        mockMvc.perform(put("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + other.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(profile)))
+                .andExpect(status().isForbidden());
+
+        UserResponseDTO stored = userService.findUser(user.getId());
+        assertThat(stored.getName()).isEqualTo("Juan Rodriguez");
+        assertThat(stored.getPhones()).extracting(PhoneDTO::getNumber).containsExactly("1111111");
+    }
+
+    @Test
+    void testUpdateETagMatchesLaterRead() throws Exception {
+        UserResponseDTO user = register("etag.update@rodriguez.org", List.of(phone("1111111", "1", "57")));
+
+        String updated = mockMvc.perform(patch("/api/users/{id}/phones", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PhonesRequestDTO(List.of(phone("8888888", "8", "57"))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                        .header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    private UUID phoneId(UUID userId, String number) {
+        return jdbcTemplate.queryForObject("SELECT id FROM phones WHERE user_id = ? AND number = ?", UUID.class, userId, number);
+    }
+
+    private UserResponseDTO register(String email, List<PhoneDTO> phones) {
+        return userService.registerUser(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(phones)
+                .build());
+    }
+
+    private static PhoneDTO phone(String number, String citycode, String countrycode) {
+        return PhoneDTO.builder().number(number).citycode(citycode).countrycode(countrycode).build();
+    }
+}
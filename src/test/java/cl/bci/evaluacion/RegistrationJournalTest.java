@@ -0,0 +1,86 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.service.RegistrationJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del journal de registros asíncronos: la posición solo avanza con las entradas confirmadas.
+ */
+class RegistrationJournalTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testUnacknowledgedEntriesAreReplayedAfterRestart() throws Exception {
+        Path path = dataDir.resolve("journal.ndjson");
+        RegistrationJournal.Entry first = entry("primero@rodriguez.org");
+        RegistrationJournal.Entry second = entry("segundo@rodriguez.org");
+        RegistrationJournal.Entry third = entry("tercero@rodriguez.org");
+
+        try (RegistrationJournal journal = new RegistrationJournal(path, objectMapper)) {
+            journal.append(first);
+            journal.append(second);
+            journal.append(third);
+            RegistrationJournal.Pending pendingFirst = journal.poll().orElseThrow();
+            RegistrationJournal.Pending pendingSecond = journal.poll().orElseThrow();
+            // El segundo termina antes que el primero: la posición no puede saltarse al primero
+            journal.ack(pendingSecond);
+            assertThat(pendingFirst.entry().id()).isEqualTo(first.id());
+        }
+
+        // Caída sin confirmar el primero: se reprocesan el primero, el segundo y el tercero
+        try (RegistrationJournal journal = new RegistrationJournal(path, objectMapper)) {
+            RegistrationJournal.Pending replayed = journal.poll().orElseThrow();
+            assertThat(replayed.entry().id()).isEqualTo(first.id());
+            journal.ack(replayed);
+            RegistrationJournal.Pending replayedSecond = journal.poll().orElseThrow();
+            assertThat(replayedSecond.entry().id()).isEqualTo(second.id());
+            journal.ack(replayedSecond);
+        }
+
+        try (RegistrationJournal journal = new RegistrationJournal(path, objectMapper)) {
+            RegistrationJournal.Pending pendingThird = journal.poll().orElseThrow();
+            assertThat(pendingThird.entry().id()).isEqualTo(third.id());
+            assertThat(journal.poll()).isEmpty();
+            journal.ack(pendingThird);
+            assertThat(journal.isEmpty()).isTrue();
+        }
+        // Todo confirmado: el journal se trunca
+        assertThat(Files.size(path)).isZero();
+    }
+
+    @Test
+    void testNewEntriesFollowPendingEntries() throws Exception {
+        try (RegistrationJournal journal = new RegistrationJournal(dataDir.resolve("journal.ndjson"), objectMapper)) {
+            assertThat(journal.appendIfPending(entry("vacio@rodriguez.org"))).isFalse();
+
+            journal.append(entry("pendiente@rodriguez.org"));
+            assertThat(journal.appendIfPending(entry("siguiente@rodriguez.org"))).isTrue();
+
+            assertThat(journal.poll().orElseThrow().entry().request().getEmail()).isEqualTo("pendiente@rodriguez.org");
+            assertThat(journal.poll().orElseThrow().entry().request().getEmail()).isEqualTo("siguiente@rodriguez.org");
+        }
+    }
+
+    private static RegistrationJournal.Entry entry(String email) {
+        return new RegistrationJournal.Entry(UUID.randomUUID(), UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+    }
+}
@@ -0,0 +1,70 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark de latencia por registro con un único cliente (nodo sin carga): registro secuencial
+ * (chequeo, JWT y BCrypt uno tras otro) contra el modo pipeline, y reducción de latencia resultante.
+ * Ejecutar con: ./gradlew benchmark --tests '*RegistrationPipelineBenchmark' -Dbenchmark.pipeline.requests=500
+ */
+@Tag("benchmark")
+class RegistrationPipelineBenchmark {
+
+    @Test
+    void benchmarkPipelineLatency() {
+        int requests = Integer.getInteger("benchmark.pipeline.requests", 500);
+
+        long[] sequential = run("secuencial", false, requests);
+        long[] pipeline = run("pipeline", true, requests);
+
+        double sequentialP50 = sequential[requests / 2] / 1_000_000.0;
+        double pipelineP50 = pipeline[requests / 2] / 1_000_000.0;
+        System.out.printf("registro pipeline: reducción p50=%.2f ms (%.1f%%)%n",
+                sequentialP50 - pipelineP50, (sequentialP50 - pipelineP50) / sequentialP50 * 100);
+    }
+
+    private long[] run(String mode, boolean pipeline, int requests) {
+        long[] latencies = new long[requests];
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EvaluacionApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:pipeline-bench-" + mode,
+                        "outbox.enabled=false",
+                        "registration.pipeline.enabled=" + pipeline)
+                .run()) {
+            UserService userService = context.getBean(UserService.class);
+            // Calentamiento: JIT, pool de conexiones y BCrypt
+            for (int i = 0; i < 50; i++) {
+                userService.registerUser(request("calentamiento" + i + "@bench.cl"));
+            }
+            for (int i = 0; i < requests; i++) {
+                UserRequestDTO request = request("usuario" + i + "@bench.cl");
+                long start = System.nanoTime();
+                userService.registerUser(request);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("registro %s: requests=%d p50=%.2f ms p99=%.2f ms%n", mode, requests,
+                latencies[requests / 2] / 1_000_000.0, latencies[(int) (requests * 0.99)] / 1_000_000.0);
+        return latencies;
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Usuario")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("912345678").citycode("9").countrycode("56").build()))
+                .build();
+    }
+}
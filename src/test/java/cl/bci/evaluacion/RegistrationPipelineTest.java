@@ -0,0 +1,67 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.UserService;
+import cl.bci.evaluacion.util.PasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests del registro en pipeline: mismo resultado que el registro secuencial.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pipeline-test",
+        "registration.pipeline.enabled=true"
+})
+class RegistrationPipelineTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testPipelineRegistersAndRejectsDuplicates() {
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Pipeline Rodriguez")
+                .email("pipeline@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+
+        UserResponseDTO response = userService.registerUser(request);
+
+        assertThat(response.getToken()).isNotBlank();
+        assertThat(passwordEncoder.matches("SecurePass123",
+                userRepository.findByEmail("pipeline@rodriguez.org").orElseThrow().getPassword())).isTrue();
+        assertThatThrownBy(() -> userService.registerUser(request))
+                .isInstanceOf(DuplicateEmailException.class)
+                .hasMessage("El correo ya registrado");
+        // El duplicado no cifra la contraseña: BCrypt solo corre con el correo libre
+        verify(passwordEncoder, times(1)).encode(anyString());
+    }
+}
@@ -0,0 +1,210 @@
+package cl.bci.evaluacion;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Soak test: registra usuarios por HTTP contra una instancia embebida (perfil durable, datos fuera del heap)
+ * durante soak.duration-minutes o hasta soak.registrations, muestreando memoria, GC y bytes asignados.
+ * Escribe una serie de tiempo CSV y falla si el heap post-GC crece más de soak.max-heap-growth-mb
+ * (mediana del último cuarto contra el primero) o si el p99 de pausas de GC supera soak.max-gc-pause-p99-ms.
+ * Ejecutar con: ./gradlew soakTest -Dsoak.duration-minutes=240 -Dsoak.registrations=5000000
+ */
+@Tag("soak")
+class RegistrationSoakTest {
+    private static final String BODY = """
+            {"name":"Juan Rodriguez","email":"%s","password":"SecurePass123",
+             "phones":[{"number":"1234567","citycode":"1","contrycode":"57"}]}""";
+
+    @TempDir
+    Path dataDir;
+
+    private final ConcurrentLinkedQueue<Long> gcPausesMs = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void soakRegistrations() throws Exception {
+        long durationMs = TimeUnit.MINUTES.toMillis(Long.getLong("soak.duration-minutes", 30));
+        long maxRegistrations = Long.getLong("soak.registrations", 1_000_000);
+        int clients = Integer.getInteger("soak.clients", Runtime.getRuntime().availableProcessors() * 2);
+        long intervalMs = TimeUnit.SECONDS.toMillis(Long.getLong("soak.sample-interval-seconds", 10));
+        long maxHeapGrowthMb = Long.getLong("soak.max-heap-growth-mb", 64);
+        long maxGcPauseP99Ms = Long.getLong("soak.max-gc-pause-p99-ms", 200);
+        Path report = Path.of(System.getProperty("soak.report", "build/soak/soak-report.csv"));
+
+        listenToGcPauses();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EvaluacionApplication.class)
+                .profiles("durable")
+                .properties("server.port=0",
+                        "h2.durable.path=" + dataDir.resolve("soak"),
+                        "outbox.sink=memory")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/users");
+
+            AtomicLong next = new AtomicLong();
+            AtomicLong failures = new AtomicLong();
+            long deadline = System.currentTimeMillis() + durationMs;
+            HttpClient client = HttpClient.newHttpClient();
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                workers.add(executor.submit(() -> {
+                    for (long i = next.getAndIncrement(); i < maxRegistrations && System.currentTimeMillis() < deadline;
+                         i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(BODY.formatted("soak" + i + "@soak.cl")))
+                                .build();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 201) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            List<Sample> samples = sample(workers, next, intervalMs, report);
+            executor.shutdown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+
+            long registrations = Math.min(next.get(), maxRegistrations);
+            double growthMb = heapGrowthMb(samples);
+            double gcP99 = gcPauseP99();
+            System.out.printf("soak: registros=%d fallidos=%d muestras=%d crecimiento heap post-GC=%.1f MB p99 pausa GC=%.1f ms reporte=%s%n",
+                    registrations, failures.get(), samples.size(), growthMb, gcP99, report.toAbsolutePath());
+
+            assertThat(failures.get()).as("registros fallidos").isZero();
+            assertThat(growthMb).as("crecimiento del heap post-GC (MB)").isLessThanOrEqualTo(maxHeapGrowthMb);
+            assertThat(gcP99).as("p99 de pausas de GC (ms)").isLessThanOrEqualTo(maxGcPauseP99Ms);
+        }
+    }
+
+    /**
+     * Muestra de memoria, GC y asignación.
+     */
+    private record Sample(long elapsedMs, long registrations, long heapUsed, long heapAfterGc,
+                          long gcCount, long gcTimeMs, long allocatedBytes) {
+    }
+
+    private List<Sample> sample(List<Future<?>> workers, AtomicLong registrations, long intervalMs, Path report)
+            throws Exception {
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<Sample> samples = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        Sample previous = null;
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+            out.println("elapsed_s,registros,registros_s,heap_usado_mb,heap_post_gc_mb,gc_count,gc_time_ms,asignado_mb_s");
+            while (workers.stream().anyMatch(worker -> !worker.isDone())) {
+                Thread.sleep(intervalMs);
+                long gcCount = 0;
+                long gcTime = 0;
+                for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    gcCount += Math.max(0, gc.getCollectionCount());
+                    gcTime += Math.max(0, gc.getCollectionTime());
+                }
+                Sample sample = new Sample(System.currentTimeMillis() - start, registrations.get(),
+                        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), heapAfterGc(),
+                        gcCount, gcTime, threads.getTotalThreadAllocatedBytes());
+                samples.add(sample);
+                if (previous != null) {
+                    double seconds = (sample.elapsedMs() - previous.elapsedMs()) / 1000.0;
+                    out.printf("%.0f,%d,%.0f,%.1f,%.1f,%d,%d,%.1f%n",
+                            sample.elapsedMs() / 1000.0, sample.registrations(),
+                            (sample.registrations() - previous.registrations()) / seconds,
+                            sample.heapUsed() / 1_048_576.0, sample.heapAfterGc() / 1_048_576.0,
+                            sample.gcCount(), sample.gcTimeMs(),
+                            (sample.allocatedBytes() - previous.allocatedBytes()) / 1_048_576.0 / seconds);
+                    out.flush();
+                }
+                previous = sample;
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Heap usado tras la última recolección de cada pool (lo que sobrevive: la señal de una fuga).
+     */
+    private static long heapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Mediana del heap post-GC del último cuarto de muestras menos la del primer cuarto (tras el calentamiento).
+     */
+    private static double heapGrowthMb(List<Sample> samples) {
+        if (samples.size() < 8) {
+            return 0;
+        }
+        int quarter = samples.size() / 4;
+        return (median(samples.subList(samples.size() - quarter, samples.size()))
+                - median(samples.subList(quarter, 2 * quarter))) / 1_048_576.0;
+    }
+
+    private static double median(List<Sample> samples) {
+        long[] values = samples.stream().mapToLong(Sample::heapAfterGc).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private double gcPauseP99() {
+        long[] pauses = gcPausesMs.stream().mapToLong(Long::longValue).sorted().toArray();
+        return pauses.length == 0 ? 0 : pauses[(int) (pauses.length * 0.99)];
+    }
+
+    private void listenToGcPauses() {
+        NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                gcPausesMs.add(info.getGcInfo().getDuration());
+            }
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.service.PhoneCodeDictionary;
+import cl.bci.evaluacion.service.RegistrationWarmup;
+import cl.bci.evaluacion.service.UserSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del calentamiento al iniciar: termina antes de aceptar tráfico y no deja usuarios, eventos, códigos de
+ * teléfono ni entradas en el índice de búsqueda.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup-test",
+        "warmup.enabled=true",
+        "search.enabled=true",
+        "warmup.min-iterations=20",
+        "warmup.max-iterations=60"
+})
+class RegistrationWarmupTest {
+
+    @Autowired
+    private RegistrationWarmup registrationWarmup;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private PhoneCodeDictionary phoneCodes;
+
+    @Value("${phones.codes.countries}")
+    private List<String> knownCountries;
+
+    @Value("${phones.codes.cities}")
+    private List<String> knownCities;
+
+    @Test
+    void testWarmupRunsBeforeAcceptingTraffic() {
+        assertThat(registrationWarmup.getCompletedIterations()).isBetween(20, 60);
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void testWarmupLeavesNoData() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM phones", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class)).isZero();
+        assertThat(userSearchService.search("warmup.invalid", 10)).isEmpty();
+    }
+
+    @Test
+    void testWarmupDoesNotAddPhoneCodes() {
+        // Solo los códigos configurados; 56 y 9, los de la solicitud de calentamiento, están entre ellos
+        assertThat(jdbcTemplate.queryForList("SELECT code FROM phone_country_codes", String.class))
+                .containsExactlyInAnyOrderElementsOf(knownCountries)
+                .contains("56");
+        assertThat(jdbcTemplate.queryForList("SELECT code FROM phone_city_codes", String.class))
+                .containsExactlyInAnyOrderElementsOf(knownCities)
+                .contains("9");
+        assertThat(phoneCodes.countries().size()).isEqualTo(knownCountries.size());
+    }
+}
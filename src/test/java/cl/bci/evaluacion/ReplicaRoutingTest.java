@@ -0,0 +1,116 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ReadWriteRoutingDataSource;
+import cl.bci.evaluacion.datasource.ReplicaRouter;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.UserService;
+import cl.bci.evaluacion.util.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del perfil replica: lecturas readOnly a la réplica, read-your-writes y métricas de pools.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-test-primary",
+        "replica.url=jdbc:h2:mem:replica-test-replica;DB_CLOSE_DELAY=-1",
+        "replica.sync-interval-ms=50"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    @Autowired
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testOwnRegistrationIsReadableImmediately() {
+        UserResponseDTO registered = userService.registerUser(request("juan@rodriguez.org"));
+
+        // Aunque la réplica aún no lo tenga, la lectura del propio registro va al primario
+        UserResponseDTO found = userService.findUser(registered.getId());
+
+        assertThat(found.getEmail()).isEqualTo("juan@rodriguez.org");
+        assertThat(found.getPhones()).hasSize(1);
+    }
+
+    @Test
+    void testReadOnlyReadsAreServedByTheReplica() throws Exception {
+        // Usuario que sólo existe en la réplica: sólo puede encontrarse si la lectura va a ella
+        UUID id = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        new JdbcTemplate(readWriteRoutingDataSource.getReplica()).update(
+                "INSERT INTO users (id, name, email, email_hash, password, created, modified, last_login, token, is_active) "
+                        + "VALUES (?, 'Replica', 'replica@rodriguez.org', ?, 'x', ?, ?, ?, 'token', TRUE)",
+                id, EmailNormalizer.hash("replica@rodriguez.org"), now, now, now);
+        waitUntilReplicaIsFresh();
+
+        assertThat(userService.findUser(id).getName()).isEqualTo("Replica");
+    }
+
+    @Test
+    void testRegisteredUserIsReplicated() throws Exception {
+        UserResponseDTO registered = userService.registerUser(request("carlos@martinez.org"));
+        waitUntilReplicaIsFresh();
+        Thread.sleep(200);
+
+        JdbcTemplate replica = new JdbcTemplate(readWriteRoutingDataSource.getReplica());
+        Integer count = replica.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, registered.getId());
+        assertThat(count).isEqualTo(1);
+
+        // Los códigos del teléfono (conocidos, guardados por id) se resuelven también en la réplica
+        String countrycode = replica.queryForObject("SELECT c.code FROM phones p "
+                + "JOIN phone_country_codes c ON c.id = p.countrycode_id WHERE p.user_id = ?", String.class, registered.getId());
+        assertThat(countrycode).isEqualTo("57");
+    }
+
+    @Test
+    void testPoolMetricsArePublishedForBothSides() {
+        assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "primary").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "replica").gauge()).isNotNull();
+        assertThat(meterRegistry.find("replica.lag").gauge()).isNotNull();
+    }
+
+    private void waitUntilReplicaIsFresh() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (replicaRouter.lagMillis() > 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Benchmark de escritura con distinta cantidad de shards.
+ * Usa un hash BCrypt fijo para medir sólo la persistencia.
+ * Ejecutar con: ./gradlew benchmark --tests '*ShardingBenchmark' -Dbenchmark.sharding.shards=1,2,4,8
+ */
+@Tag("benchmark")
+class ShardingBenchmark {
+    private static final String DUMMY_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK";
+
+    @Test
+    void benchmarkWriteThroughputPerShardCount() throws Exception {
+        int[] shardCounts = Arrays.stream(System.getProperty("benchmark.sharding.shards", "1,2,4,8").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int users = Integer.getInteger("benchmark.sharding.users", 200_000);
+        int threads = Integer.getInteger("benchmark.sharding.threads", Runtime.getRuntime().availableProcessors() * 2);
+
+        for (int shards : shardCounts) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EvaluacionApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("sharded")
+                    .properties("sharding.shards=" + shards,
+                            "sharding.pool-size=" + threads,
+                            "sharding.url-template=jdbc:h2:mem:bench-" + shards + "-shard-%d;DB_CLOSE_DELAY=-1")
+                    .run()) {
+                ShardRouter shardRouter = context.getBean(ShardRouter.class);
+                UserRepository userRepository = context.getBean(UserRepository.class);
+
+                long start = System.nanoTime();
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = thread; i < users; i += threads) {
+                            User user = user("usuario" + i + "@bench.cl");
+                            shardRouter.onShardOf(user.getEmail(), () -> userRepository.save(user));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                executor.shutdown();
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+                System.out.printf("sharding: shards=%d threads=%d users=%d time=%.1fs rate=%.0f users/s%n",
+                        shards, threads, users, seconds, users / seconds);
+            }
+        }
+    }
+
+    private static User user(String email) {
+        User user = User.builder()
+                .name("Usuario")
+                .email(email)
+                .password(DUMMY_HASH)
+                .token("token")
+                .phones(List.of(Phone.builder().number("912345678").citycode("9").countrycode("56").build()))
+                .build();
+        user.getPhones().forEach(phone -> phone.setUser(user));
+        return user;
+    }
+}
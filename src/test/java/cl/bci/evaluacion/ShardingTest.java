@@ -0,0 +1,127 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.datasource.ReplicaRouter;
+import cl.bci.evaluacion.datasource.ShardRouter;
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.entity.User;
+import cl.bci.evaluacion.repository.UserRepository;
+import cl.bci.evaluacion.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests del perfil sharded: enrutamiento por hash del correo, unicidad y consultas scatter-gather.
+ */
+@SpringBootTest(properties = "sharding.shards=3")
+@ActiveProfiles("sharded")
+class ShardingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        IntStream.range(0, shardRouter.getShards())
+                .forEach(shard -> shardRouter.onShard(shard, () -> {
+                    userRepository.deleteAll();
+                    return null;
+                }));
+    }
+
+    @Test
+    void testUsersAreStoredInTheShardOfTheirEmail() {
+        List<String> emails = IntStream.range(0, 30).mapToObj(i -> "usuario" + i + "@sharding.cl").toList();
+        emails.forEach(email -> userService.registerUser(request(email)));
+
+        for (String email : emails) {
+            int shard = shardRouter.shardOf(email);
+            assertThat(shardRouter.onShard(shard, () -> userRepository.findByEmail(email))).isPresent();
+            // Los teléfonos quedan en el mismo shard que su usuario
+            Integer phones = shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM phones p JOIN users u ON u.id = p.user_id WHERE u.email = ?",
+                    Integer.class, email));
+            assertThat(phones).isEqualTo(1);
+        }
+
+        // Con 30 correos todos los shards reciben usuarios
+        IntStream.range(0, shardRouter.getShards())
+                .forEach(shard -> assertThat(shardRouter.onShard(shard, userRepository::count)).isPositive());
+    }
+
+    @Test
+    void testDuplicateEmailIsDetectedInItsShard() {
+        userService.registerUser(request("juan@rodriguez.org"));
+
+        assertThatThrownBy(() -> userService.registerUser(request("juan@rodriguez.org")))
+                .isInstanceOf(DuplicateEmailException.class);
+    }
+
+    @Test
+    void testScatterGatherListsUsersFromAllShards() {
+        IntStream.range(0, 12).forEach(i -> userService.registerUser(request("lista" + i + "@sharding.cl")));
+
+        List<User> users = shardRouter.scatter(userRepository::findAll);
+
+        assertThat(users).hasSize(12);
+        assertThat(shardRouter.findFirst(() -> userRepository.findByEmail("lista7@sharding.cl"))).isPresent();
+    }
+
+    @Test
+    void testScatterKeepsReadYourWritesOfTheCaller() {
+        ShardRouter router = new ShardRouter(3);
+        ReplicaRouter replicaRouter = new ReplicaRouter(true, true, 1000);
+        replicaRouter.markSynced(System.currentTimeMillis());
+        UUID id = UUID.randomUUID();
+        replicaRouter.recordWrite(id);
+
+        // Cada consulta del scatter corre en otro hilo: dentro de una transacción readOnly debe seguir en el primario
+        List<Boolean> useReplica = replicaRouter.read(id, () -> router.scatter(() -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try {
+                return List.of(replicaRouter.useReplica());
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        }));
+
+        assertThat(useReplica).hasSize(3).containsOnly(false);
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.exception.DuplicateEmailException;
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.InFlightRegistrations;
+import cl.bci.evaluacion.service.UserService;
+import cl.bci.evaluacion.util.PasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests del single-flight: solicitudes concurrentes con el mismo correo cifran la contraseña una sola vez.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:single-flight-test")
+class SingleFlightRegistrationTest {
+    private static final int REQUESTS = 100;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private InFlightRegistrations inFlightRegistrations;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testConcurrentIdenticalRequestsHashOnce() throws Exception {
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email("Retry@Rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserResponseDTO>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.registerUser(request);
+                }));
+            }
+            start.countDown();
+        }
+
+        int created = 0;
+        int duplicates = 0;
+        for (Future<UserResponseDTO> result : results) {
+            try {
+                result.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(DuplicateEmailException.class);
+                duplicates++;
+            }
+        }
+
+        assertThat(created).isEqualTo(1);
+        assertThat(duplicates).isEqualTo(REQUESTS - 1);
+        verify(passwordEncoder, times(1)).encode(anyString());
+        // Sin entradas pendientes al terminar
+        assertThat(inFlightRegistrations.size()).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.monitoring.SqlStatementCounter;
+import cl.bci.evaluacion.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guardas de regresión de cantidad de sentencias SQL en el registro y la consulta de usuarios.
+ * Si un cambio agrega consultas (N+1, merge en vez de persist, batching deshabilitado) estos tests fallan.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sql-count-test")
+@AutoConfigureMockMvc
+class SqlStatementCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRegistrationWithThreePhonesStatementCount() {
+        SqlStatementCounter.reset();
+        UserResponseDTO user = userService.registerUser(request("tres@telefonos.cl"));
+        SqlStatementCounter.Counts registration = SqlStatementCounter.current();
+
+        // 1 select (chequeo de correo) + 1 insert (batch) por tabla
+        assertThat(registration.count("select")).as(registration.toString()).isLessThanOrEqualTo(1);
+        assertThat(registration.count("insert", "users")).as(registration.toString()).isEqualTo(1);
+        assertThat(registration.count("insert", "phones")).as(registration.toString()).isEqualTo(1);
+        assertThat(registration.count("insert", "outbox_events")).as(registration.toString()).isEqualTo(1);
+        assertThat(registration.count("update")).as(registration.toString()).isZero();
+
+        SqlStatementCounter.reset();
+        userService.findUser(user.getId());
+        SqlStatementCounter.Counts lookup = SqlStatementCounter.current();
+
+        // Usuario y teléfonos en una sola consulta
+        assertThat(lookup.total()).as(lookup.toString()).isEqualTo(1);
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void testStatementCountsArePublishedPerEndpoint() throws Exception {
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request("metricas@telefonos.cl"))))
+                .andExpect(status().isCreated());
+
+        DistributionSummary inserts = meterRegistry.find("http.server.requests.sql")
+                .tags("uri", "/api/users", "method", "POST", "type", "insert")
+                .summary();
+        assertThat(inserts).isNotNull();
+        assertThat(inserts.max()).isEqualTo(3);
+    }
+
+    private static UserRequestDTO request(String email) {
+        return UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build(),
+                        PhoneDTO.builder().number("2345678").citycode("2").countrycode("57").build(),
+                        PhoneDTO.builder().number("3456789").citycode("9").countrycode("56").build()
+                ))
+                .build();
+    }
+}
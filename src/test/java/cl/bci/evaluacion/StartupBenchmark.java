@@ -0,0 +1,124 @@
+package cl.bci.evaluacion;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark de arranque: tiempo hasta el primer 201 de POST /api/users y RSS del proceso
+ * en modo por defecto y en modo faststart (AOT + CDS + inicialización diferida).
+ * Ejecutar con: ./gradlew startupBenchmark -PfastStart
+ */
+@Tag("startup")
+class StartupBenchmark {
+    private static final String BODY = """
+            {"name":"Juan Rodriguez","email":"%s","password":"SecurePass123",
+             "phones":[{"number":"1234567","citycode":"1","contrycode":"57"}]}""";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @Test
+    void benchmarkStartup() throws Exception {
+        Path dir = Path.of(System.getProperty("startup.dir"));
+        String jar = System.getProperty("startup.jar");
+        String java = System.getProperty("startup.java");
+        boolean aot = Boolean.getBoolean("startup.aot");
+        int runs = Integer.getInteger("startup.runs", 5);
+
+        List<String> defaultMode = List.of(java, "-jar", jar);
+        List<String> fastMode = new ArrayList<>(List.of(java, "-XX:SharedArchiveFile=application.jsa"));
+        if (aot) {
+            fastMode.add("-Dspring.aot.enabled=true");
+        }
+        fastMode.addAll(List.of("-jar", jar, "--spring.profiles.active=faststart"));
+
+        report("default", dir, defaultMode, runs);
+        report(aot ? "faststart (AOT+CDS+lazy)" : "faststart (CDS+lazy)", dir, fastMode, runs);
+    }
+
+    private void report(String mode, Path dir, List<String> command, int runs) throws Exception {
+        long[] millis = new long[runs];
+        long[] rssKb = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = startOnce(dir, command);
+            millis[i] = result[0];
+            rssKb[i] = result[1];
+        }
+        Arrays.sort(millis);
+        Arrays.sort(rssKb);
+        System.out.printf("startup %s: time-to-first-201 median=%d ms min=%d ms, RSS median=%.1f MB%n",
+                mode, millis[runs / 2], millis[0], rssKb[runs / 2] / 1024.0);
+    }
+
+    private long[] startOnce(Path dir, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(new File(dir.toFile(), "startup-" + port + ".log"))
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(BODY.formatted("juan" + port + "@rodriguez.org")))
+                    .build();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("La aplicación terminó antes de responder, ver log en " + dir);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 201) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // Aún no escucha en el puerto
+                }
+                Thread.sleep(10);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            return new long[] {elapsedMs, rssKb(process.pid())};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("\\D", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
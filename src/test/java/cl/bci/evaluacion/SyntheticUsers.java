@@ -0,0 +1,105 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.entity.Phone;
+import cl.bci.evaluacion.util.EmailNormalizer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generador determinista de usuarios sintéticos: el usuario i es siempre el mismo para una semilla dada,
+ * por lo que cualquier hilo puede generar cualquier rango sin coordinación.
+ * Correos con distribución de dominios realista (proveedores masivos y dominios corporativos .cl),
+ * de 1 a 3 teléfonos (mayoría móviles chilenos) y un hash BCrypt fijo precalculado.
+ */
+final class SyntheticUsers {
+    // Hash BCrypt fijo: los datos sintéticos no pasan por el cifrado
+    static final String DUMMY_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7nJ6P5bV2y1lZ5l8Q0yq1eK";
+
+    private static final String[] FIRST_NAMES = {
+            "Juan", "María", "José", "Ana", "Luis", "Carmen", "Carlos", "Francisca", "Pedro", "Catalina",
+            "Diego", "Valentina", "Jorge", "Camila", "Andrés", "Javiera", "Felipe", "Constanza", "Matías", "Sofía"};
+    private static final String[] LAST_NAMES = {
+            "González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras", "Silva", "Martínez", "Sepúlveda",
+            "Morales", "Rodríguez", "López", "Fuentes", "Hernández", "Torres", "Araya", "Flores", "Espinoza", "Valenzuela"};
+    // Versiones sin tildes para el correo, precalculadas
+    private static final String[] FIRST_ASCII = ascii(FIRST_NAMES);
+    private static final String[] LAST_ASCII = ascii(LAST_NAMES);
+    // Dominios con peso acumulado sobre 100
+    private static final String[] DOMAINS = {
+            "gmail.com", "hotmail.com", "outlook.com", "yahoo.com", "live.cl", "bci.cl", "empresa.cl", "uchile.cl"};
+    private static final int[] DOMAIN_WEIGHTS = {45, 65, 75, 82, 88, 93, 97, 100};
+    // Códigos de teléfono generados, para el diccionario de códigos
+    static final List<String> COUNTRY_CODES = List.of("56", "57");
+    static final List<String> CITY_CODES = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9");
+
+    /**
+     * Usuario sintético listo para insertar.
+     */
+    record SyntheticUser(UUID id, String name, String email, long emailHash, String token, List<Phone> phones) {
+    }
+
+    private final long seed;
+
+    SyntheticUsers(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param index Índice del usuario (determina todos sus datos)
+     * @return Usuario sintético; el correo es único por índice
+     */
+    SyntheticUser user(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        int first = random.nextInt(FIRST_NAMES.length);
+        int last = random.nextInt(LAST_NAMES.length);
+        String domain = domain(random.nextInt(100));
+        String email = EmailNormalizer.normalize(FIRST_ASCII[first] + "." + LAST_ASCII[last] + index + "@" + domain);
+
+        int phoneCount = random.nextInt(10) < 6 ? 1 : random.nextInt(4) < 3 ? 2 : 3;
+        List<Phone> phones = new ArrayList<>(phoneCount);
+        for (int i = 0; i < phoneCount; i++) {
+            phones.add(phone(random));
+        }
+        return new SyntheticUser(new UUID(random.nextLong(), random.nextLong()),
+                FIRST_NAMES[first] + " " + LAST_NAMES[last], email,
+                EmailNormalizer.hash(email), "token-" + index, phones);
+    }
+
+    private static Phone phone(SplittableRandom random) {
+        int kind = random.nextInt(100);
+        if (kind < 80) {
+            // Móvil chileno: 9 + 8 dígitos
+            return phone(String.valueOf(900_000_000 + random.nextInt(100_000_000)), "9", "56");
+        }
+        if (kind < 95) {
+            // Fijo de Santiago: 2 + 8 dígitos
+            return phone(String.valueOf(20_000_000 + random.nextInt(80_000_000)), "2", "56");
+        }
+        // Extranjero (Colombia)
+        return phone(String.valueOf(3_000_000 + random.nextInt(7_000_000)), String.valueOf(1 + random.nextInt(8)), "57");
+    }
+
+    private static Phone phone(String number, String citycode, String countrycode) {
+        return Phone.builder().number(number).citycode(citycode).countrycode(countrycode).build();
+    }
+
+    private static String domain(int roll) {
+        for (int i = 0; i < DOMAIN_WEIGHTS.length; i++) {
+            if (roll < DOMAIN_WEIGHTS[i]) {
+                return DOMAINS[i];
+            }
+        }
+        return DOMAINS[DOMAINS.length - 1];
+    }
+
+    private static String[] ascii(String[] values) {
+        return Arrays.stream(values)
+                .map(value -> Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", ""))
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,95 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.TokenSweeper;
+import cl.bci.evaluacion.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests del barrido de tokens vencidos y de usuarios inactivos, en bloques de 2 filas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:token-sweeper-test",
+        "token.sweeper.enabled=false",
+        "token.sweeper.chunk-size=2",
+        "token.sweeper.pause-ms=0"
+})
+class TokenSweeperTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenSweeper tokenSweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testSweepClearsExpiredAndInactiveTokens() {
+        List<UUID> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = register("vencido" + i + "@rodriguez.org").getId();
+            jdbcTemplate.update("UPDATE users SET token_expires = DATEADD('HOUR', ?, CURRENT_TIMESTAMP) WHERE id = ?", -1 - i, id);
+            expired.add(id);
+        }
+        UUID inactive = register("inactivo@rodriguez.org").getId();
+        jdbcTemplate.update("UPDATE users SET is_active = FALSE WHERE id = ?", inactive);
+        UserResponseDTO valid = register("vigente@rodriguez.org");
+        double expiredBefore = meterRegistry.counter("token.sweeper.rows", "reason", "expired").count();
+
+        long cleared = tokenSweeper.sweep();
+
+        assertThat(cleared).isEqualTo(6);
+        for (UUID id : expired) {
+            assertThat(token(id)).isNull();
+        }
+        assertThat(token(inactive)).isNull();
+        assertThat(token(valid.getId())).isEqualTo(valid.getToken());
+        assertThat(meterRegistry.counter("token.sweeper.rows", "reason", "expired").count() - expiredBefore).isEqualTo(5);
+        assertThat(meterRegistry.get("token.sweeper.pending").gauge().value()).isZero();
+
+        // Un segundo barrido no encuentra nada
+        assertThat(tokenSweeper.sweep()).isZero();
+    }
+
+    @Test
+    void testSweepBumpsModified() {
+        UserResponseDTO user = register("modificado@rodriguez.org");
+        jdbcTemplate.update("UPDATE users SET token_expires = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) WHERE id = ?", user.getId());
+
+        tokenSweeper.sweep();
+
+        UserResponseDTO swept = userService.findUser(user.getId());
+        assertThat(token(user.getId())).isNull();
+        assertThat(swept.getModified()).isAfter(user.getModified());
+    }
+
+    private String token(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT token FROM users WHERE id = ?", String.class, id);
+    }
+
+    private UserResponseDTO register(String email) {
+        return userService.registerUser(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+    }
+}
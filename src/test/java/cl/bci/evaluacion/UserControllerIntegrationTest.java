@@ -177,6 +177,52 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.mensaje").value("El correo ya registrado"));
     }
 
+    /**
+     * El correo se normaliza al guardar: la unicidad no distingue mayúsculas ni espacios.
+     */
+    @Test
+    void testRegisterUserWithDuplicateEmailDifferentCase() throws Exception {
+        UserRequestDTO firstRequest = UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email("Juan@Rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("1234567")
+                                .citycode("1")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(firstRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email").value("juan@rodriguez.org"));
+
+        UserRequestDTO secondRequest = UserRequestDTO.builder()
+                .name("Otro Juan Rodriguez")
+                .email("juan@rodriguez.org")
+                .password("SecurePass456")
+                .phones(List.of(
+                        PhoneDTO.builder()
+                                .number("9876543")
+                                .citycode("2")
+                                .countrycode("57")
+                                .build()
+                ))
+                .build();
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(secondRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("El correo ya registrado"));
+
+        assertThat(userRepository.findByEmail("JUAN@rodriguez.org")).isPresent();
+    }
+
     @Test
     void testRegisterUserMissingName() throws Exception {
         UserRequestDTO request = UserRequestDTO.builder()
@@ -266,6 +312,24 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.phones[1].number").value("9876543"));
     }
 
+    @Test
+    void testRegisterUserKeepsPhoneCodesOutsideTheDictionary() throws Exception {
+        // Códigos que no están en el diccionario: se guardan como texto y la respuesta los conserva
+        UserRequestDTO request = UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email("juan@rodriguez.org")
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("+9a").countrycode("+1234567").build()))
+                .build();
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.phones[0].citycode").value("+9a"))
+                .andExpect(jsonPath("$.phones[0].contrycode").value("+1234567"));
+    }
+
     /**
      * Test para validar que el token JWT se genera correctamente.
      * Verifica que:
@@ -0,0 +1,131 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.service.UserExportService;
+import cl.bci.evaluacion.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la exportación de usuarios en CSV y NDJSON.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export-test",
+        "export.http.enabled=true",
+        "export.fetch-size=1"
+})
+@AutoConfigureMockMvc
+class UserExportTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM users");
+        register("Juan, Rodriguez", "juan@rodriguez.org", List.of("1234567", "7654321"));
+        register("Ana Perez", "ana@perez.org", List.of("5555555"));
+    }
+
+    @Test
+    void testCsvExportGroupsPhonesPerUser() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UserExportService.ExportResult result = userExportService.export(out, UserExportService.Format.CSV, false);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(result.users()).isEqualTo(2);
+        assertThat(result.bytes()).isEqualTo(out.size());
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("id,name,email,created,modified,last_login,isactive,phones");
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .contains("\"Juan, Rodriguez\",juan@rodriguez.org,")
+                .contains("1234567:1:57")
+                .contains("7654321:1:57"));
+        // Sin datos sensibles
+        assertThat(out.toString(StandardCharsets.UTF_8)).doesNotContain("$2a$");
+    }
+
+    @Test
+    void testGzipNdjsonExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UserExportService.ExportResult result = userExportService.export(out, UserExportService.Format.NDJSON, true);
+
+        byte[] ndjson = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        List<JsonNode> users = new String(ndjson, StandardCharsets.UTF_8).lines()
+                .map(this::readTree)
+                .toList();
+        assertThat(result.users()).isEqualTo(2);
+        assertThat(users).extracting(user -> user.get("email").asText())
+                .containsExactlyInAnyOrder("juan@rodriguez.org", "ana@perez.org");
+        assertThat(users).allSatisfy(user -> assertThat(user.has("token")).isFalse());
+        JsonNode ana = users.stream().filter(user -> user.get("email").asText().equals("ana@perez.org")).findFirst().orElseThrow();
+        assertThat(ana.get("phones").get(0).get("contrycode").asText()).isEqualTo("57");
+    }
+
+    @Test
+    void testExportEndpointStreamsResponse() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "NDJSON"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.ndjson\""))
+                .andExpect(content().string(containsString("\"email\":\"ana@perez.org\"")));
+    }
+
+    private void register(String name, String email, List<String> numbers) {
+        userService.registerUser(UserRequestDTO.builder()
+                .name(name)
+                .email(email)
+                .password("SecurePass123")
+                .phones(numbers.stream()
+                        .map(number -> PhoneDTO.builder().number(number).citycode("1").countrycode("57").build())
+                        .toList())
+                .build());
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.monitoring.SqlStatementCounter;
+import cl.bci.evaluacion.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de lectura parcial (?fields=) y lecturas condicionales con ETag en GET /api/users/{id}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-fields-test")
+@AutoConfigureMockMvc
+class UserFieldsTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testSparseFieldsReturnOnlyRequestedFields() throws Exception {
+        UserResponseDTO user = register("parcial@rodriguez.org");
+
+        MvcResult result = mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .param("fields", "isactive,id,email"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        List<String> fields = new ArrayList<>();
+        body.fieldNames().forEachRemaining(fields::add);
+        // En el orden del contrato JSON
+        assertThat(fields).containsExactly("id", "email", "isactive");
+        assertThat(body.get("email").asText()).isEqualTo("parcial@rodriguez.org");
+        assertThat(body.get("isactive").asBoolean()).isTrue();
+    }
+
+    @Test
+    void testSparseFieldsReadOnlyUserColumns() {
+        UserResponseDTO user = register("columnas@rodriguez.org");
+
+        SqlStatementCounter.reset();
+        UserService.UserFields fields = userService.findUserFields(user.getId(), user.getEmail(),
+                Set.of("id", "email", "isactive"));
+        SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+        SqlStatementCounter.reset();
+
+        assertThat(fields.values()).containsOnlyKeys("id", "email", "isactive");
+        assertThat(fields.modified()).isNotNull();
+        // Un select sobre users, sin join con phones
+        assertThat(counts.total()).as(counts.toString()).isEqualTo(1);
+        assertThat(counts.count("select", "users")).as(counts.toString()).isEqualTo(1);
+    }
+
+    @Test
+    void testSparseFieldsWithPhones() throws Exception {
+        UserResponseDTO user = register("telefonos@rodriguez.org");
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .param("fields", "email,phones"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phones[0].contrycode").value("57"))
+                .andExpect(jsonPath("$.token").doesNotExist());
+    }
+
+    @Test
+    void testIfNoneMatchReturnsNotModified() throws Exception {
+        UserResponseDTO user = register("etag@rodriguez.org");
+
+        String etag = mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .param("fields", "id,isactive")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"0.0\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testReadsDoNotExposeToken() throws Exception {
+        UserResponseDTO user = register("sintoken@rodriguez.org");
+        assertThat(user.getToken()).isNotBlank();
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("sintoken@rodriguez.org"))
+                .andExpect(jsonPath("$.token").doesNotExist());
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .param("fields", "id,token"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Campo inválido: token"));
+    }
+
+    @Test
+    void testInvalidFieldReturnsBadRequest() throws Exception {
+        UserResponseDTO user = register("invalido@rodriguez.org");
+
+        mockMvc.perform(get("/api/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                        .param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Campo inválido: password"));
+    }
+
+    @Test
+    void testReadRequiresTheUsersOwnToken() throws Exception {
+        UserResponseDTO user = register("propio@rodriguez.org");
+        UserResponseDTO other = register("otro@rodriguez.org");
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header(HttpHeaders.AUTHORIZATION, bearer(other)))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.mensaje").value("El token no corresponde al usuario"));
+        mockMvc.perform(get("/api/users/{id}", user.getId()).param("fields", "id,isactive")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(other)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/{id}", user.getId()).param("fields", "id,phones")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(other)))
+                .andExpect(status().isForbidden());
+    }
+
+    private static String bearer(UserResponseDTO user) {
+        return "Bearer " + user.getToken();
+    }
+
+    private UserResponseDTO register(String email) {
+        return userService.registerUser(UserRequestDTO.builder()
+                .name("Juan Rodriguez")
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+    }
+}
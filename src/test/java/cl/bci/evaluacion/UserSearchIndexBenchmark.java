@@ -0,0 +1,110 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.util.UserSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del índice de búsqueda: latencia de consulta por texto parcial de correo o nombre, y memoria
+ * del índice por millón de usuarios sintéticos (estimación del índice y heap medido tras GC).
+ * Ejecutar con: ./gradlew benchmark --tests '*UserSearchIndexBenchmark' -Dbenchmark.search.size=1000000
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchIndexBenchmark {
+
+    @Param("1000000")
+    public int size;
+
+    private UserSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = build(size);
+    }
+
+    /**
+     * Parte del correo presente en pocos usuarios (índice + dominio).
+     */
+    @Benchmark
+    public List<UserSearchIndex.Match> selectiveEmail() {
+        return index.search("12345@", 20);
+    }
+
+    /**
+     * Apellido frecuente: muchas coincidencias, se corta en el límite.
+     */
+    @Benchmark
+    public List<UserSearchIndex.Match> commonName() {
+        return index.search("sepulveda", 20);
+    }
+
+    /**
+     * Texto sin coincidencias: una lista de trigrama vacía corta la búsqueda.
+     */
+    @Benchmark
+    public List<UserSearchIndex.Match> noMatch() {
+        return index.search("zzqx", 20);
+    }
+
+    @Test
+    void benchmarkSearchIndex() throws Exception {
+        int users = Integer.getInteger("benchmark.search.size", 1_000_000);
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        UserSearchIndex built = build(users);
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long heapAfter = usedHeap();
+        double perMillion = 1_000_000.0 / users / 1_048_576;
+        System.out.printf("índice de búsqueda: usuarios=%d construcción=%d ms estimado=%.0f MB/millón heap medido=%.0f MB/millón%n",
+                built.size(), buildMs, built.memoryBytes() * perMillion, (heapAfter - heapBefore) * perMillion);
+
+        Options options = new OptionsBuilder()
+                .include(UserSearchIndexBenchmark.class.getSimpleName())
+                .param("size", String.valueOf(users))
+                .jvmArgsAppend("-Xmx" + System.getProperty("benchmark.search.heap", "4g"))
+                .build();
+        new Runner(options).run();
+    }
+
+    private static UserSearchIndex build(int users) {
+        SyntheticUsers synthetic = new SyntheticUsers(42);
+        UserSearchIndex index = new UserSearchIndex();
+        for (int i = 0; i < users; i++) {
+            SyntheticUsers.SyntheticUser user = synthetic.user(i);
+            index.add(user.id(), user.email(), user.name());
+        }
+        return index;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
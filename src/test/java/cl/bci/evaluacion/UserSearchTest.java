@@ -0,0 +1,182 @@
+package cl.bci.evaluacion;
+
+import cl.bci.evaluacion.model.dto.PhoneDTO;
+import cl.bci.evaluacion.model.dto.UserRequestDTO;
+import cl.bci.evaluacion.model.dto.UserResponseDTO;
+import cl.bci.evaluacion.service.UserService;
+import cl.bci.evaluacion.util.JwtUtil;
+import cl.bci.evaluacion.util.UserSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la búsqueda de usuarios por texto parcial de correo o nombre.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-search-test",
+        "search.enabled=true"
+})
+@AutoConfigureMockMvc
+class UserSearchTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void testSearchByPartialEmailAndName() throws Exception {
+        UserResponseDTO sofia = register("Sofía Sepúlveda", "sofia.sepulveda@empresa.cl");
+        register("Diego Rojas", "drojas@gmail.com");
+
+        mockMvc.perform(search().param("q", "SEPULV"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(sofia.getId().toString()))
+                .andExpect(jsonPath("$[0].name").value("Sofía Sepúlveda"))
+                .andExpect(jsonPath("$[0].email").value("sofia.sepulveda@empresa.cl"));
+
+        mockMvc.perform(search().param("q", "jas@gm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("drojas@gmail.com"));
+
+        mockMvc.perform(search().param("q", "inexistente"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testIndexFollowsProfileUpdates() throws Exception {
+        UserResponseDTO user = register("Pedro Araya", "pedro.araya@bci.cl");
+        userService.updateUser(user.getId(), "pedro.araya@bci.cl", UserRequestDTO.builder()
+                .name("Pedro Valenzuela")
+                .email("pedro.araya@bci.cl")
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+
+        mockMvc.perform(search().param("q", "pedro"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Pedro Valenzuela"));
+        mockMvc.perform(search().param("q", "Pedro Araya"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testShortQueryIsRejected() throws Exception {
+        mockMvc.perform(search().param("q", "ab"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("La búsqueda requiere al menos 3 caracteres"));
+    }
+
+    @Test
+    void testLimitMustBeAtLeastOne() throws Exception {
+        register("Marta Limite", "marta.limite@empresa.cl");
+
+        mockMvc.perform(search().param("q", "limite").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("El límite debe ser al menos 1"));
+        mockMvc.perform(search().param("q", "limite").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(search().param("q", "limite").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void testIndexIntersectsTrigramsAndRespectsLimit() {
+        UserSearchIndex index = new UserSearchIndex();
+        for (int i = 0; i < 50; i++) {
+            index.add(UUID.randomUUID(), "usuario" + i + "@correo.cl", "Usuario " + i);
+        }
+        // "abcab" contiene los trigramas de "cabc" pero no el texto: se descarta al verificar
+        index.add(UUID.randomUUID(), "abcab@correo.cl", "Otro");
+
+        assertThat(index.search("usuario4", 100)).extracting(UserSearchIndex.Match::email)
+                .containsExactly("usuario4@correo.cl", "usuario40@correo.cl", "usuario41@correo.cl",
+                        "usuario42@correo.cl", "usuario43@correo.cl", "usuario44@correo.cl", "usuario45@correo.cl",
+                        "usuario46@correo.cl", "usuario47@correo.cl", "usuario48@correo.cl", "usuario49@correo.cl");
+        assertThat(index.search("correo", 10)).hasSize(10);
+        assertThat(index.search("cabc", 10)).isEmpty();
+        assertThat(index.memoryBytes()).isPositive();
+    }
+
+    @Test
+    void testDuplicatedDocumentsDoNotShrinkTheLimit() {
+        UserSearchIndex index = new UserSearchIndex();
+        UUID repeated = UUID.randomUUID();
+        // Indexado dos veces, como un registro concurrente con la construcción del índice
+        index.add(repeated, "repetido@correo.cl", "Repetido");
+        index.add(repeated, "repetido@correo.cl", "Repetido");
+        index.add(UUID.randomUUID(), "otro@correo.cl", "Otro");
+
+        assertThat(index.search("correo", 2)).extracting(UserSearchIndex.Match::email)
+                .containsExactly("repetido@correo.cl", "otro@correo.cl");
+    }
+
+    @Test
+    void testUpdatesAreCompacted() {
+        UserSearchIndex index = new UserSearchIndex();
+        UUID id = UUID.randomUUID();
+        index.add(id, "compacto@correo.cl", "Nombre 0");
+        index.add(UUID.randomUUID(), "vecino@correo.cl", "Vecino");
+
+        for (int i = 1; i <= 50_000; i++) {
+            index.update(id, "compacto@correo.cl", "Nombre " + i);
+        }
+
+        // Sin compactar serían 50.000 versiones (varios MB de texto y listas)
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.removed()).isLessThan(2 * 1024);
+        assertThat(index.memoryBytes()).isLessThan(1_000_000);
+        assertThat(index.search("compacto", 10)).extracting(UserSearchIndex.Match::name).containsExactly("Nombre 50000");
+        assertThat(index.search("vecino", 10)).hasSize(1);
+        assertThat(index.search("nombre 9999", 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchRequiresToken() throws Exception {
+        register("Tomás Token", "tomas.token@empresa.cl");
+
+        mockMvc.perform(get("/api/users/search").param("q", "token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mockMvc.perform(get("/api/users/search").param("q", "token")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer invalido"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * GET /api/users/search con un token válido.
+     */
+    private MockHttpServletRequestBuilder search() {
+        return get("/api/users/search").header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateJWT("agente@soporte.cl"));
+    }
+
+    private UserResponseDTO register(String name, String email) {
+        return userService.registerUser(UserRequestDTO.builder()
+                .name(name)
+                .email(email)
+                .password("SecurePass123")
+                .phones(List.of(PhoneDTO.builder().number("1234567").citycode("1").countrycode("57").build()))
+                .build());
+    }
+}